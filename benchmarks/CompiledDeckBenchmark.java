@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+/** Compares the time needed for parsing a synthetic deck with loadCardFile and for loading the same deck from a
+ * compiled deck using loadCardFileCompiled. Usage: java CompiledDeckBenchmark [number_of_cards] [rounds] */
+public class CompiledDeckBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int numCards = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        // create synthetic deck and compiled deck:
+        Path deckFile = Files.createTempFile("carddown-compiled", ".md");
+        Path compiledFile = Files.createTempFile("carddown-compiled", ".cdeck");
+        Files.write(deckFile, new SyntheticDeck(numCards, 1, 1, 1, 80, 1, 2, 42).generate(), StandardCharsets.UTF_8);
+        MarkdownLoader loader = new MarkdownLoader();
+
+        try {
+            loader.loadCardFileCompiled(deckFile.toString(), compiledFile.toString());
+            System.out.printf("cards:                %d (%,d bytes of Markdown, %,d bytes compiled)%n", numCards,
+                    Files.size(deckFile), Files.size(compiledFile));
+
+            long parseNanos = Long.MAX_VALUE;
+            long compiledNanos = Long.MAX_VALUE;
+            long checksum = 0;
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                List<LearningCard> cards = loader.loadCardFile(deckFile.toString());
+                parseNanos = Math.min(parseNanos, System.nanoTime() - start);
+                checksum += cards.size();
+
+                start = System.nanoTime();
+                cards = loader.loadCardFileCompiled(deckFile.toString(), compiledFile.toString());
+                compiledNanos = Math.min(compiledNanos, System.nanoTime() - start);
+                checksum += cards.size();
+            }
+
+            System.out.printf("loadCardFile:         %8.1f ms%n", parseNanos / 1e6);
+            System.out.printf("loadCardFileCompiled: %8.1f ms%n", compiledNanos / 1e6);
+            System.out.printf("speedup:              %.1fx   (checksum %d)%n", (double) parseNanos / compiledNanos,
+                    checksum);
+        } finally {
+            Files.deleteIfExists(deckFile);
+            Files.deleteIfExists(compiledFile);
+        }
+    }
+}
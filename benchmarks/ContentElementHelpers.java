@@ -0,0 +1,35 @@
+import java.io.IOException;
+
+
+/** Exposes the protected inline parsing helper methods of ContentElement to the benchmarks. */
+final class ContentElementHelpers extends ContentElement {
+
+    private ContentElementHelpers() {}
+
+    static String inlineFormatting(String line) {
+        return parseInlineFormatting(line);
+    }
+
+    static String links(String line) {
+        return parseLinks(line);
+    }
+
+    @Override
+    public void parseInlineFormatting() {}
+
+    @Override
+    public void parseLinks() {}
+
+    @Override
+    public void render(Appendable out, RenderContext context, String lineSeparator) throws IOException {}
+
+    @Override
+    public String toString() {
+        return "";
+    }
+
+    @Override
+    public ElementTag getElementTag() {
+        return ElementTag.TEXT_BLOCK;
+    }
+}
@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+/** Compares the heap used by a list of LearningCards with the heap used by the same cards stored in a CompactDeck.
+ * Usage: java FootprintBenchmark [number_of_cards] */
+public class FootprintBenchmark {
+
+    /** Returns used heap in bytes after running the garbage collector. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int numCards = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+        // create synthetic deck:
+        Path deckFile = Files.createTempFile("carddown-footprint", ".md");
+        Files.write(deckFile, new SyntheticDeck(numCards, 1, 1, 1, 80, 1, 2, 42).generate(), StandardCharsets.UTF_8);
+
+        try {
+            long baseline = usedHeap();
+            List<LearningCard> cards = new MarkdownLoader().loadCardFile(deckFile.toString());
+            long withCards = usedHeap();
+
+            CompactDeck deck = CompactDeck.of(cards);
+            cards = null;
+            long withDeck = usedHeap();
+
+            long cardsBytes = withCards - baseline;
+            long deckBytes = withDeck - baseline;
+            System.out.printf("cards:                %d (%d bytes of Markdown)%n", deck.getNumCards(), Files.size(deckFile));
+            System.out.printf("List<LearningCard>:   %,12d bytes (%,d bytes per 100k cards)%n",
+                    cardsBytes, cardsBytes * 100000 / numCards);
+            System.out.printf("CompactDeck:          %,12d bytes (%,d bytes per 100k cards)%n",
+                    deckBytes, deckBytes * 100000 / numCards);
+            System.out.printf("ratio:                %.1fx%n", (double) cardsBytes / deckBytes);
+        } finally {
+            Files.deleteIfExists(deckFile);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/** Compares lines per second of the former regex based line classifier and MarkdownLoader.getElement on a synthetic
+ * deck created by repeating the given Markdown file.
+ * Usage: java LineClassifierBenchmark [file_path] [repetitions] */
+public class LineClassifierBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /** Former implementation of MarkdownLoader.getElement used as reference. */
+    private static ElementTag getElementRegex(String line) {
+        if (line.matches("^#+ .*")) return ElementTag.HEADING;
+        if (line.matches("^[-\\*+] .*")) return ElementTag.BULLET_LIST;
+        if (line.matches("^[1-9]*\\. .*")) return ElementTag.ORDERED_LIST;
+        if (line.startsWith("[ ] ")) return ElementTag.WRONG_ANSWER;
+        if (line.startsWith("[x] ")) return ElementTag.RIGHT_ANSWER;
+        if (line.equals("")) return ElementTag.EMPTY_LINE;
+        return ElementTag.TEXT_BLOCK;
+    }
+
+    /** Classifies all given lines and returns checksum of the resulting tags. */
+    private static long classifyRegex(List<String> lines) {
+        long checksum = 0;
+        for (String line : lines) checksum += getElementRegex(line).ordinal();
+        return checksum;
+    }
+    private static long classify(List<String> lines) {
+        long checksum = 0;
+        for (String line : lines) checksum += MarkdownLoader.getElement(line).ordinal();
+        return checksum;
+    }
+
+    /** Runs given classifier and returns the best measured result in lines per second. */
+    private static double measure(List<String> lines, boolean useRegex) {
+        double best = 0;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            long checksum = useRegex ? classifyRegex(lines) : classify(lines);
+            long duration = System.nanoTime() - start;
+            if (checksum < 0) System.out.println(checksum);
+            if (i >= WARMUP_ROUNDS) best = Math.max(best, lines.size() / (duration / 1e9));
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : "examples/example.md";
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        // create synthetic deck:
+        List<String> example = Files.readAllLines(Paths.get(filePath));
+        List<String> lines = new ArrayList<>(example.size() * repetitions);
+        for (int i = 0; i < repetitions; i++) lines.addAll(example);
+
+        // make sure both classifiers agree:
+        for (String line : example) {
+            if (getElementRegex(line) != MarkdownLoader.getElement(line))
+                throw new IllegalStateException("Classifiers disagree on line: " + line);
+        }
+
+        // measure:
+        double regex = measure(lines, true);
+        double handWritten = measure(lines, false);
+        System.out.printf("lines:                  %d%n", lines.size());
+        System.out.printf("regex classifier:       %,.0f lines/s%n", regex);
+        System.out.printf("single-pass classifier: %,.0f lines/s%n", handWritten);
+        System.out.printf("speedup:                %.1fx%n", handWritten / regex);
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/** Compares the former regex based link parser with ContentElement.parseLinks on a worst case line containing many
+ * links. The former parser rescans the rewritten line after every replacement, so it is only executed once.
+ * Usage: java LinkParserBenchmark [number_of_links] */
+public class LinkParserBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int REGEX_ROUNDS = 1;
+
+    /** Former implementation of ContentElement.parseLinks used as reference. */
+    private static final Pattern[] linkPatterns = {
+            Pattern.compile("\\[\\]\\(.*\\)"),
+            Pattern.compile("\\[.]\\]\\(.*\\)"),
+            Pattern.compile("\\[..*.\\]\\(.*\\)"),
+    };
+    private static String parseLinksRegex(String line) {
+        for (Pattern pat : linkPatterns) {
+            Matcher matcher = pat.matcher(line);
+            while (matcher.find()) {
+                String linkString = line.substring(matcher.start(), matcher.end());
+                String linkText = linkString.substring(1, linkString.indexOf(']'));
+                String link = linkString.substring(linkString.indexOf(']') + 2, linkString.length() - 1);
+                line = line.substring(0, matcher.start())
+                        + "<a href=\"" + link + "\">" + linkText + "</a>"
+                        + line.substring(matcher.end());
+                matcher = pat.matcher(line);
+            }
+        }
+        return line;
+    }
+
+    /** Runs given link parser and returns the best measured duration in microseconds. */
+    private static double measure(String line, boolean useRegex, int warmupRounds, int measuredRounds) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < warmupRounds + measuredRounds; i++) {
+            long start = System.nanoTime();
+            String result = useRegex ? parseLinksRegex(line) : ContentElementHelpers.links(line);
+            long duration = System.nanoTime() - start;
+            if (result.isEmpty()) System.out.println(result);
+            if (i >= warmupRounds) best = Math.min(best, duration / 1e3);
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        int numLinks = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        // create line containing given number of links:
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numLinks; i++) {
+            builder.append("see [link ").append(i).append("](https://example.org/page").append(i).append(") and ");
+        }
+        String line = builder.toString();
+
+        // count links found by both parsers:
+        int regexLinks = parseLinksRegex(line).split("<a href=", -1).length - 1;
+        int scannerLinks = ContentElementHelpers.links(line).split("<a href=", -1).length - 1;
+
+        // measure:
+        double regex = measure(line, true, 0, REGEX_ROUNDS);
+        double scanner = measure(line, false, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        System.out.printf("links in line:  %d (%d characters)%n", numLinks, line.length());
+        System.out.printf("regex parser:   %,.1f us, %d links found%n", regex, regexLinks);
+        System.out.printf("link scanner:   %,.1f us, %d links found%n", scanner, scannerLinks);
+    }
+}
@@ -0,0 +1,63 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+
+/** Measures throughput and allocations of all stages of loading and exporting a synthetic deck: loading the file,
+ * inline formatting, links, rendering cards for Anki and both CardGenerators. The allocated bytes are measured per
+ * operation on the benchmark thread, comparable to the normalized allocation rate of a GC profiler. This is a quick
+ * check without forks or error bars; carddown.jmh.PipelineJmhBenchmark measures the same stages with JMH.
+ * Usage: java PipelineBenchmark [--cards=N] [--mix=SIMPLE:QUESTION:CHOICE] [--line-length=N] [--links=N]
+ *                               [--formats=N] [--rounds=N] */
+public class PipelineBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Runs given stage and prints its throughput and allocated bytes per operation. */
+    private static void measure(String name, int rounds, Callable<Long> stage) throws Exception {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checksum += stage.call();
+        }
+
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            checksum += stage.call();
+        }
+        long duration = System.nanoTime() - start;
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        double seconds = duration / 1e9;
+        System.out.printf("%-22s %10.2f ops/s %14.1f ms/op %14.1f MB/op %12.1f MB/s   (checksum %d)%n",
+                name, rounds / seconds, duration / 1e6 / rounds, allocated / 1e6 / rounds, allocated / 1e6 / seconds,
+                checksum);
+    }
+
+    /** Returns value of given option (or given default value if it is not specified). */
+    private static String option(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) return arg.substring(name.length() + 3);
+        }
+        return defaultValue;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int numCards = Integer.parseInt(option(args, "cards", "10000"));
+        String mix = option(args, "mix", "1:1:1");
+        int lineLength = Integer.parseInt(option(args, "line-length", "80"));
+        int links = Integer.parseInt(option(args, "links", "1"));
+        int formats = Integer.parseInt(option(args, "formats", "2"));
+        int rounds = Integer.parseInt(option(args, "rounds", "10"));
+
+        // create synthetic deck and measure each stage:
+        try (PipelineStages stages = new PipelineStages(numCards, mix, lineLength, links, formats)) {
+            System.out.printf("deck: %d cards, %d lines, %d bytes%n", numCards, stages.getNumLines(), stages.getDeckSize());
+            for (String name : PipelineStages.NAMES) {
+                measure(name, rounds, stages.stage(name));
+            }
+        }
+    }
+}
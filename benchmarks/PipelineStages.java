@@ -0,0 +1,82 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+/** Stages of loading and exporting a synthetic deck, which are measured by PipelineBenchmark and by the JMH benchmark
+ * carddown.jmh.PipelineJmhBenchmark. Each stage returns a value depending on its result to keep it from being
+ * optimized away. The deck is written to a temporary file, which is deleted by close(). */
+public class PipelineStages implements AutoCloseable {
+
+    /** Names of all stages in the order of the pipeline. */
+    public static final List<String> NAMES = List.of("loadCardFile", "parseInlineFormatting", "parseLinks",
+            "getContentAsAnki", "AnkiCardGenerator", "HTMLCardGenerator");
+
+    private final List<String> lines;
+    private final Path deckFile;
+    private final Path outputFile;
+    private final MarkdownLoader loader = new MarkdownLoader();
+    private final List<LearningCard> cards;
+
+    /** Creates deck of given number of cards (see SyntheticDeck), using given mix of card types in the form
+     * "SIMPLE:QUESTION:CHOICE". */
+    public PipelineStages(int numCards, String mix, int lineLength, int links, int formats) throws IOException {
+        String[] weights = mix.split(":");
+        SyntheticDeck deck = new SyntheticDeck(numCards, Integer.parseInt(weights[0]), Integer.parseInt(weights[1]),
+                Integer.parseInt(weights[2]), lineLength, links, formats, 42);
+        this.lines = deck.generate();
+        this.deckFile = Files.createTempFile("carddown-bench", ".md");
+        this.outputFile = deckFile.resolveSibling(deckFile.getFileName() + ".out");
+        Files.write(deckFile, lines, StandardCharsets.UTF_8);
+        this.cards = loader.loadCardFile(deckFile.toString());
+    }
+
+    public int getNumLines() {
+        return lines.size();
+    }
+
+    public long getDeckSize() throws IOException {
+        return Files.size(deckFile);
+    }
+
+    /** Returns stage with given name (see NAMES). */
+    public Callable<Long> stage(String name) {
+        return switch (name) {
+            case "loadCardFile" -> () -> (long) loader.loadCardFile(deckFile.toString()).size();
+            case "parseInlineFormatting" -> () -> {
+                long length = 0;
+                for (String line : lines) length += ContentElementHelpers.inlineFormatting(line).length();
+                return length;
+            };
+            case "parseLinks" -> () -> {
+                long length = 0;
+                for (String line : lines) length += ContentElementHelpers.links(line).length();
+                return length;
+            };
+            case "getContentAsAnki" -> () -> {
+                long length = 0;
+                for (int i = 0; i < cards.size(); i++) length += cards.get(i).getContentAsAnki(i).length();
+                return length;
+            };
+            case "AnkiCardGenerator" -> () -> export(new AnkiCardGenerator());
+            case "HTMLCardGenerator" -> () -> export(new HTMLCardGenerator());
+            default -> throw new IllegalArgumentException("There is no stage called " + name + ".");
+        };
+    }
+
+    /** Exports all cards with given generator and returns size of the output file. */
+    private long export(CardGenerator generator) throws IOException {
+        Files.deleteIfExists(outputFile);
+        generator.exportCards(cards, outputFile.toString());
+        return Files.size(outputFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(deckFile);
+        Files.deleteIfExists(outputFile);
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/** Generates Markdown decks for benchmarks. The number of cards, the mix of card types, the length of text lines and
+ * the number of links and formatted spans per line can be configured. The same seed always creates the same deck. */
+public class SyntheticDeck {
+
+    private static final String[] WORDS = {
+            "card", "answer", "question", "memory", "review", "deck", "note", "field", "front", "back",
+    };
+    private static final String[][] FORMATS = {{"**", "**"}, {"*", "*"}, {"~~", "~~"}, {"`", "`"}};
+
+    private final int numCards;
+    private final int[] typeWeights;
+    private final int lineLength;
+    private final int linksPerLine;
+    private final int formatsPerLine;
+    private final Random random;
+
+    /** Creates generator of given number of cards. The type of each card is chosen using the given weights of simple,
+     * question and choice cards. */
+    public SyntheticDeck(int numCards, int simpleWeight, int questionWeight, int choiceWeight, int lineLength,
+                         int linksPerLine, int formatsPerLine, long seed) {
+        this.numCards = numCards;
+        this.typeWeights = new int[]{simpleWeight, questionWeight, choiceWeight};
+        this.lineLength = lineLength;
+        this.linksPerLine = linksPerLine;
+        this.formatsPerLine = formatsPerLine;
+        this.random = new Random(seed);
+    }
+
+    /** Returns lines of generated deck. */
+    public List<String> generate() {
+        List<String> output = new ArrayList<>();
+        int totalWeight = typeWeights[0] + typeWeights[1] + typeWeights[2];
+        for (int i = 0; i < numCards; i++) {
+            int type = random.nextInt(totalWeight);
+            if (type < typeWeights[0]) appendSimpleCard(output, i);
+            else if (type < typeWeights[0] + typeWeights[1]) appendQuestionCard(output, i);
+            else appendChoiceCard(output, i);
+            output.add("");
+        }
+        return output;
+    }
+
+    /** Returns generated deck as single String. */
+    public String generateString() {
+        return String.join("\n", generate()) + "\n";
+    }
+
+    /** Helper methods to append cards of different types. */
+    private void appendSimpleCard(List<String> output, int cardNo) {
+        output.add("# Simple card " + cardNo);
+        output.add("");
+        output.add(line());
+        output.add(line());
+        output.add("");
+        output.add("- " + line());
+        output.add("- " + line());
+    }
+    private void appendQuestionCard(List<String> output, int cardNo) {
+        output.add("# Question card " + cardNo + " {QUESTION}");
+        output.add("");
+        output.add(line());
+        output.add("");
+        output.add("## Answer {BACK}");
+        output.add("");
+        output.add(line());
+        output.add("");
+        output.add("1. " + line());
+        output.add("2. " + line());
+    }
+    private void appendChoiceCard(List<String> output, int cardNo) {
+        output.add("# Choice card " + cardNo + " {CHOICE}");
+        output.add("");
+        output.add("[ ] " + line());
+        output.add("");
+        output.add(line());
+        output.add("");
+        output.add("[x] " + line());
+        output.add("");
+        output.add(line());
+    }
+
+    /** Returns line of text with approximately the configured length, links and formatted spans. */
+    private String line() {
+        StringBuilder builder = new StringBuilder();
+        int specials = linksPerLine + formatsPerLine;
+        int wordsPerPart = Math.max(1, lineLength / 7 / (specials + 1));
+        int links = linksPerLine;
+        int formats = formatsPerLine;
+
+        for (int part = 0; part <= specials; part++) {
+            for (int w = 0; w < wordsPerPart; w++) {
+                builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (links > 0 && (formats == 0 || random.nextBoolean())) {
+                builder.append('[').append(WORDS[random.nextInt(WORDS.length)]).append("](https://example.org/")
+                        .append(random.nextInt(1000)).append(") ");
+                links--;
+            } else if (formats > 0) {
+                String[] format = FORMATS[random.nextInt(FORMATS.length)];
+                builder.append(format[0]).append(WORDS[random.nextInt(WORDS.length)]).append(format[1]).append(' ');
+                formats--;
+            }
+        }
+
+        return builder.toString().trim();
+    }
+}
@@ -0,0 +1,109 @@
+package carddown.jmh;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/** JMH benchmark of all stages of loading and exporting a synthetic deck (see PipelineStages). JMH does not accept
+ * benchmarks in the default package and classes in a named package cannot reference the default package, so the
+ * stages are looked up reflectively once during setup and called through Callable.
+ * Usage: java -jar target/benchmarks.jar PipelineJmhBenchmark -prof gc [-p cards=N] [-p mix=SIMPLE:QUESTION:CHOICE] */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class PipelineJmhBenchmark {
+
+    @Param("10000")
+    public int cards;
+
+    @Param("1:1:1")
+    public String mix;
+
+    @Param("80")
+    public int lineLength;
+
+    @Param("1")
+    public int links;
+
+    @Param("2")
+    public int formats;
+
+    private AutoCloseable stages;
+
+    private Callable<Long> loadCardFile;
+    private Callable<Long> parseInlineFormatting;
+    private Callable<Long> parseLinks;
+    private Callable<Long> getContentAsAnki;
+    private Callable<Long> ankiCardGenerator;
+    private Callable<Long> htmlCardGenerator;
+
+    @Setup
+    public void setup() throws Exception {
+        Class<?> type = Class.forName("PipelineStages");
+        stages = (AutoCloseable) type.getConstructor(int.class, String.class, int.class, int.class, int.class)
+                .newInstance(cards, mix, lineLength, links, formats);
+        loadCardFile = stage("loadCardFile");
+        parseInlineFormatting = stage("parseInlineFormatting");
+        parseLinks = stage("parseLinks");
+        getContentAsAnki = stage("getContentAsAnki");
+        ankiCardGenerator = stage("AnkiCardGenerator");
+        htmlCardGenerator = stage("HTMLCardGenerator");
+    }
+
+    /** Returns stage with given name of PipelineStages. */
+    @SuppressWarnings("unchecked")
+    private Callable<Long> stage(String name) throws ReflectiveOperationException {
+        return (Callable<Long>) stages.getClass().getMethod("stage", String.class).invoke(stages, name);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        stages.close();
+    }
+
+    @Benchmark
+    public long loadCardFile() throws Exception {
+        return loadCardFile.call();
+    }
+
+    @Benchmark
+    public long parseInlineFormatting() throws Exception {
+        return parseInlineFormatting.call();
+    }
+
+    @Benchmark
+    public long parseLinks() throws Exception {
+        return parseLinks.call();
+    }
+
+    @Benchmark
+    public long getContentAsAnki() throws Exception {
+        return getContentAsAnki.call();
+    }
+
+    @Benchmark
+    public long ankiCardGenerator() throws Exception {
+        return ankiCardGenerator.call();
+    }
+
+    @Benchmark
+    public long htmlCardGenerator() throws Exception {
+        return htmlCardGenerator.call();
+    }
+}
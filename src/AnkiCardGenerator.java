@@ -1,46 +1,233 @@
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /** Represents object to export LearningCards to HTML file suitable for importing into Anki. */
 public class AnkiCardGenerator extends CardGenerator {
 
-    /** Creates txt file containing given list of LearningCards suitable for anki imports. */
+    /** CardSink writing the same files as AnkiCardGenerator (without delta export) for MultiTargetCardGenerator. */
+    public static final CardSink SINK = new CardSink() {
+        @Override
+        public String getExtension() {
+            return ".txt";
+        }
+
+        @Override
+        public void writeHeader(BufferedWriter writer) throws IOException {
+            AnkiCardGenerator.writeHeader(writer);
+        }
+
+        @Override
+        public void writeCard(Appendable out, RenderedCard card) throws IOException {
+            Appendable escaped = new QuoteEscapingAppendable(out);
+            out.append('"').append(card.getGUID()).append("\";\"");
+            card.writeFront(escaped, "");
+            out.append("\";\"");
+            card.writeBack(escaped, "");
+            out.append('"').append(System.lineSeparator());
+        }
+    };
+
+    /** First line of a manifest file written by exportChanges. */
+    private static final String MANIFEST_HEADER = "#carddown-manifest 2";
+
+    /** Creates AnkiCardGenerator rendering all cards sequentially. */
+    public AnkiCardGenerator() {
+        super();
+    }
+
+    /** Creates AnkiCardGenerator rendering chunks of cards on given number of threads. */
+    public AnkiCardGenerator(int parallelism) {
+        super(parallelism, DEFAULT_CHUNK_SIZE, 2 * parallelism);
+    }
+
+    /** Creates AnkiCardGenerator rendering chunks of given size on given number of threads, keeping at most
+     * maxChunksInFlight rendered chunks in memory. */
+    public AnkiCardGenerator(int parallelism, int chunkSize, int maxChunksInFlight) {
+        super(parallelism, chunkSize, maxChunksInFlight);
+    }
+
+    /** Creates AnkiCardGenerator like above, which reports the metrics of each exported file to given PipelineListener. */
+    public AnkiCardGenerator(int parallelism, int chunkSize, int maxChunksInFlight, PipelineListener listener) {
+        super(parallelism, chunkSize, maxChunksInFlight, listener);
+    }
+
+    /** Creates txt file containing given LearningCards suitable for anki imports. The first column contains a GUID
+     * derived from given name of the deck and the heading of each card (see CardGUIDs). */
     @Override
-    public void exportCards(List<LearningCard> cards, String output_file) {
+    public boolean exportCards(Iterable<LearningCard> cards, String output_file, String deckName) {
+        return this.exportCards(cards, output_file, deckName, null, null);
+    }
 
-        // create output file:
-        Path filePath = Paths.get(output_file);
+    /** Exports only the cards added or modified since the previous call for the same output file, replacing the
+     * previous output file. A manifest next to the output file ("[output_file].manifest") maps the GUID of each
+     * exported card to the hash of its content, which does not depend on the position of the card in the deck, the
+     * GUIDs of the cards removed since the previous call are written to "[output_file].removed". Without a manifest,
+     * all cards are exported. Returns whether the output file was replaced. */
+    public boolean exportChanges(Iterable<LearningCard> cards, String output_file) {
+        return this.exportChanges(cards, output_file, this.getDefaultDeckName(output_file));
+    }
+
+    /** Exports changes of given cards of the deck identified by given name (see CardGenerator.exportCards). */
+    public boolean exportChanges(Iterable<LearningCard> cards, String output_file, String deckName) {
+        Path outputFile;
         try {
-            Files.createFile(filePath);
-        } catch (FileAlreadyExistsException ex) {
-            System.err.println("A file with the given name already exists.");
-            return;
-        } catch (IOException ex) {
+            outputFile = Paths.get(output_file);
+        } catch (InvalidPathException ex) {
             System.err.println("The given file name is invalid.");
-            return;
+            return false;
         }
+        Path manifestFile = outputFile.resolveSibling(outputFile.getFileName() + ".manifest");
+        Path removedFile = outputFile.resolveSibling(outputFile.getFileName() + ".removed");
+        Path tmpFile = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
 
-        // generate header:
-        List<String> output = new ArrayList<>();
-        output.add("#seperator=;");
-        output.add("#html=true");
-        output.add("#columns=Front;Back");
-        output.add("#notetype=Basic");
-        output.add("");
+        try {
+            Map<String, Long> previous = readManifest(manifestFile);
+            Map<String, Long> current = new ConcurrentHashMap<>();
 
-        // generate learning cards:
-        for (LearningCard c : cards) {
-            output.add(c.getContentAsAnki());
+            // write changed cards to temporary file, so the previous output stays intact if the export fails:
+            Files.deleteIfExists(tmpFile);
+            if (!this.exportCards(cards, tmpFile.toString(), deckName, previous, current)) {
+                Files.deleteIfExists(tmpFile);
+                return false;
+            }
+            Files.move(tmpFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // list removed cards, then remember exported cards (a failure here only causes a larger next export):
+            List<String> removed = new ArrayList<>();
+            for (String guid : previous.keySet()) {
+                if (!current.containsKey(guid)) removed.add(guid);
+            }
+            replaceFile(removedFile, removed);
+            List<String> manifest = new ArrayList<>(current.size() + 1);
+            manifest.add(MANIFEST_HEADER);
+            for (Map.Entry<String, Long> entry : new TreeMap<>(current).entrySet()) {
+                manifest.add(entry.getKey() + " " + Long.toHexString(entry.getValue()));
+            }
+            replaceFile(manifestFile, manifest);
+            return true;
+        } catch (IOException ex) {
+            System.err.println("There was an error creating the file.");
+            return false;
         }
+    }
 
-        // write content to file:
-        try {
-            Files.write(filePath, output, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    /** Exports changes of given stream of cards to given file (see above). */
+    public boolean exportChanges(Stream<LearningCard> cards, String output_file) {
+        return this.exportChanges((Iterable<LearningCard>) cards::iterator, output_file);
+    }
+
+    /** Creates txt file containing given LearningCards. If previous is not null, only cards whose content has a
+     * different hash than given in previous are written and the hashes of all cards are put into current. Returns
+     * whether the file was written completely. */
+    private boolean exportCards(Iterable<LearningCard> cards, String output_file, String deckName,
+                                Map<String, Long> previous, Map<String, Long> current) {
+
+        // create output file:
+        BufferedWriter writer = createOutputFile(output_file);
+        if (writer == null) return false;
+
+        try (writer) {
+
+            // generate header:
+            writeHeader(writer);
+
+            // generate learning cards, each with a stable GUID so that Anki updates existing notes on re-import:
+            String lineSeparator = System.lineSeparator();
+            CardGUIDs guids = new CardGUIDs(deckName);
+            if (previous == null) {
+                writeCards(guids.assignTo(cards), writer, (out, card, cardIndex) -> {
+                    out.append('"').append(guids.take(cardIndex)).append("\";");
+                    card.renderAnki(out, cardIndex);
+                    out.append(lineSeparator);
+                });
+                return true;
+            }
+
+            // delta export: hash each card rendered with a fixed index, as the IDs of checkboxes depend on the index
+            // of the card (Anki shows each note on its own, so the IDs only have to be unique within a note):
+            writeCards(guids.assignTo(cards), writer, (out, card, cardIndex) -> {
+                String guid = guids.take(cardIndex);
+                StringBuilder fields = new StringBuilder();
+                card.renderAnki(fields, 0);
+                long hash = hash(fields);
+                current.put(guid, hash);
+
+                // only write cards that changed:
+                Long previousHash = previous.get(guid);
+                if (previousHash != null && previousHash == hash) return;
+                out.append('"').append(guid).append("\";");
+                card.renderAnki(out, cardIndex);
+                out.append(lineSeparator);
+            });
+            return true;
         } catch (IOException ex) {
             System.err.println("There was an error creating the file.");
+            return false;
         }
     }
+
+    /** Writes header declaring the columns of the file. */
+    private static void writeHeader(BufferedWriter writer) throws IOException {
+        writer.write("#separator:Semicolon");
+        writer.newLine();
+        writer.write("#html:true");
+        writer.newLine();
+        writer.write("#notetype:Basic");
+        writer.newLine();
+        writer.write("#columns:GUID;Front;Back");
+        writer.newLine();
+        writer.write("#guid column:1");
+        writer.newLine();
+        writer.newLine();
+    }
+
+    /** Returns 64-bit FNV-1a hash of given characters. */
+    private static long hash(CharSequence chars) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Reads GUIDs and hashes of the previously exported cards from given manifest file. Returns an empty map if there
+     * is no manifest or it cannot be parsed, so that all cards are exported again. */
+    private static Map<String, Long> readManifest(Path manifestFile) throws IOException {
+        if (!Files.exists(manifestFile)) return Collections.emptyMap();
+        List<String> lines = Files.readAllLines(manifestFile, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(MANIFEST_HEADER)) return Collections.emptyMap();
+
+        Map<String, Long> manifest = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            int separator = line.indexOf(' ');
+            if (separator <= 0) return Collections.emptyMap();
+            try {
+                manifest.put(line.substring(0, separator), Long.parseUnsignedLong(line.substring(separator + 1), 16));
+            } catch (NumberFormatException ex) {
+                return Collections.emptyMap();
+            }
+        }
+        return manifest;
+    }
+
+    /** Replaces given file with given lines, writing a temporary file first. */
+    private static void replaceFile(Path file, List<String> lines) throws IOException {
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmpFile, lines, StandardCharsets.UTF_8);
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 }
@@ -0,0 +1,327 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+/** Represents object to export LearningCards directly into an Anki package (.apkg file), which can be opened in Anki
+ * without using the text importer. The package is a zip file containing the collection database (collection.anki2,
+ * an SQLite database in the schema of Anki 2.1) and an empty list of media files. Each card becomes a note of the note
+ * type "CardDown Basic" with a front and a back field. Writing the database requires the SQLite JDBC driver
+ * (org.xerial:sqlite-jdbc) on the class path. */
+public class ApkgCardGenerator extends CardGenerator {
+
+    /** Number of notes inserted with one batch of the prepared statements. */
+    public static final int BATCH_SIZE = 1000;
+
+    /** ID of the note type, which is the same for all packages, so Anki reuses it for every imported package. */
+    private static final long MODEL_ID = 1607392319L;
+
+    /** Separator of the fields of a note. */
+    private static final char FIELD_SEPARATOR = '\u001f';
+
+    private static final String SCHEMA = """
+            CREATE TABLE col (id integer primary key, crt integer not null, mod integer not null,
+                scm integer not null, ver integer not null, dty integer not null, usn integer not null,
+                ls integer not null, conf text not null, models text not null, decks text not null,
+                dconf text not null, tags text not null);
+            CREATE TABLE notes (id integer primary key, guid text not null, mid integer not null,
+                mod integer not null, usn integer not null, tags text not null, flds text not null,
+                sfld integer not null, csum integer not null, flags integer not null, data text not null);
+            CREATE TABLE cards (id integer primary key, nid integer not null, did integer not null,
+                ord integer not null, mod integer not null, usn integer not null, type integer not null,
+                queue integer not null, due integer not null, ivl integer not null, factor integer not null,
+                reps integer not null, lapses integer not null, left integer not null, odue integer not null,
+                odid integer not null, flags integer not null, data text not null);
+            CREATE TABLE revlog (id integer primary key, cid integer not null, usn integer not null,
+                ease integer not null, ivl integer not null, lastIvl integer not null, factor integer not null,
+                time integer not null, type integer not null);
+            CREATE TABLE graves (usn integer not null, oid integer not null, type integer not null);
+            """;
+
+    /** Indices of the tables, which are created after inserting all notes, since this is faster than updating them
+     * for every note. */
+    private static final String INDICES = """
+            CREATE INDEX ix_notes_usn on notes (usn);
+            CREATE INDEX ix_cards_usn on cards (usn);
+            CREATE INDEX ix_revlog_usn on revlog (usn);
+            CREATE INDEX ix_cards_nid on cards (nid);
+            CREATE INDEX ix_cards_sched on cards (did, queue, due);
+            CREATE INDEX ix_revlog_cid on revlog (cid);
+            CREATE INDEX ix_notes_csum on notes (csum);
+            """;
+
+    private static final String CONF = """
+            {"activeDecks": [1], "addToCur": true, "collapseTime": 1200, "curDeck": 1, "curModel": "%1$d",
+            "dueCounts": true, "estTimes": true, "newBury": true, "newSpread": 0, "nextPos": 1,
+            "sortBackwards": false, "sortType": "noteFld", "timeLim": 0}""";
+
+    private static final String MODELS = """
+            {"%1$d": {"id": %1$d, "name": "CardDown Basic", "type": 0, "mod": %2$d, "usn": -1, "sortf": 0,
+            "did": %3$d, "tags": [], "vers": [], "req": [[0, "any", [0]]], "latexsvg": false,
+            "tmpls": [{"name": "Card 1", "ord": 0, "qfmt": "{{Front}}", "afmt": "{{FrontSide}}<hr id=answer>{{Back}}",
+            "did": null, "bqfmt": "", "bafmt": ""}],
+            "flds": [{"name": "Front", "ord": 0, "sticky": false, "rtl": false, "font": "Arial", "size": 20, "media": []},
+            {"name": "Back", "ord": 1, "sticky": false, "rtl": false, "font": "Arial", "size": 20, "media": []}],
+            "css": ".card {font-family: arial; font-size: 20px; text-align: left; color: black; background-color: white;}",
+            "latexPre": "\\\\documentclass[12pt]{article}\\n\\\\special{papersize=3in,5in}\\n\\\\usepackage[utf8]{inputenc}\\n\\\\usepackage{amssymb,amsmath}\\n\\\\pagestyle{empty}\\n\\\\setlength{\\\\parindent}{0in}\\n\\\\begin{document}\\n",
+            "latexPost": "\\\\end{document}"}}""";
+
+    private static final String DECK = """
+            {"id": %1$d, "name": %2$s, "mod": %3$d, "usn": -1, "conf": 1, "desc": "", "dyn": 0, "collapsed": false,
+            "extendNew": 10, "extendRev": 50, "newToday": [0, 0], "revToday": [0, 0], "lrnToday": [0, 0],
+            "timeToday": [0, 0]}""";
+
+    private static final String DCONF = """
+            {"1": {"id": 1, "name": "Default", "mod": 0, "usn": 0, "maxTaken": 60, "autoplay": true, "timer": 0,
+            "replayq": true, "dyn": false,
+            "new": {"bury": true, "delays": [1, 10], "initialFactor": 2500, "ints": [1, 4, 7], "order": 1,
+            "perDay": 20, "separate": true},
+            "lapse": {"delays": [10], "leechAction": 0, "leechFails": 8, "minInt": 1, "mult": 0},
+            "rev": {"bury": true, "ease4": 1.3, "fuzz": 0.05, "ivlFct": 1, "maxIvl": 36500, "minSpace": 1,
+            "perDay": 100}}}""";
+
+    /** Name of the deck containing the cards, which also identifies the deck if no other name is given (or null to
+     * use the name of the output file). */
+    private final String deckName;
+
+    /** Creates ApkgCardGenerator putting the cards into a deck named like the output file. */
+    public ApkgCardGenerator() {
+        this(null);
+    }
+
+    /** Creates ApkgCardGenerator putting the cards into a deck with given name. */
+    public ApkgCardGenerator(String deckName) {
+        super();
+        this.deckName = deckName;
+    }
+
+    /** Creates apkg file containing given LearningCards. The notes are inserted in batches within a single
+     * transaction, each card is rendered right before it is inserted. The GUIDs of the notes are derived from given
+     * name of the deck, the cards are shown in a deck named like the ApkgCardGenerator or the output file. */
+    @Override
+    public boolean exportCards(Iterable<LearningCard> cards, String output_file, String deckName) {
+        if (!isDriverAvailable()) {
+            System.err.println("The SQLite JDBC driver (org.xerial:sqlite-jdbc with its dependency org.slf4j:slf4j-api) " +
+                    "is required for creating apkg files.");
+            return false;
+        }
+
+        // create output file:
+        OutputStream out = createOutputStream(output_file);
+        if (out == null) return false;
+
+        Path database = null;
+        boolean written = false;
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+
+            // compressing the database dominates the time needed for large decks:
+            zip.setLevel(Deflater.BEST_SPEED);
+
+            // write collection database to temporary file:
+            database = Files.createTempFile("carddown", ".anki2");
+            this.writeCollection(cards, database, this.getDefaultDeckName(output_file), new CardGUIDs(deckName));
+
+            // add collection and (empty) list of media files to package:
+            zip.putNextEntry(new ZipEntry("collection.anki2"));
+            Files.copy(database, zip);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("media"));
+            zip.write("{}".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            written = true;
+        } catch (IOException | SQLException ex) {
+            System.err.println("There was an error creating the file.");
+            written = false;
+        } finally {
+            deleteQuietly(database);
+
+            // remove incomplete package, so the export can simply be run again:
+            if (!written) deleteQuietly(Paths.get(output_file));
+        }
+        return written;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // temporary file is removed by the system eventually
+        }
+    }
+
+    /** Creates collection database in given file and inserts given cards into a deck with given name, taking the
+     * GUIDs of the notes from given CardGUIDs. */
+    private void writeCollection(Iterable<LearningCard> cards, Path database, String name, CardGUIDs guids)
+            throws IOException, SQLException {
+        long now = System.currentTimeMillis();
+        long nowSeconds = now / 1000;
+        long deckID = getDeckID(name);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+
+            // the database is a temporary file, so there is no need for a journal:
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = OFF");
+                statement.execute("PRAGMA synchronous = OFF");
+                statement.execute("PRAGMA locking_mode = EXCLUSIVE");
+                statement.execute("PRAGMA cache_size = -65536");
+            }
+            connection.setAutoCommit(false);
+
+            executeAll(connection, SCHEMA);
+
+            // insert collection with note type and deck:
+            try (PreparedStatement col = connection.prepareStatement(
+                    "INSERT INTO col VALUES (1, ?, ?, ?, 11, 0, 0, 0, ?, ?, ?, ?, '{}')")) {
+                String decks = "{\"1\": " + String.format(DECK, 1L, "\"Default\"", nowSeconds) + ", \"" + deckID +
+                        "\": " + String.format(DECK, deckID, quote(name), nowSeconds) + "}";
+                col.setLong(1, nowSeconds);
+                col.setLong(2, now);
+                col.setLong(3, now);
+                col.setString(4, String.format(CONF, MODEL_ID));
+                col.setString(5, String.format(MODELS, MODEL_ID, nowSeconds, deckID));
+                col.setString(6, decks);
+                col.setString(7, DCONF);
+                col.executeUpdate();
+            }
+
+            // insert one note and one card per LearningCard:
+            try (PreparedStatement notes = connection.prepareStatement(
+                         "INSERT INTO notes VALUES (?, ?, ?, ?, -1, '', ?, ?, ?, 0, '')");
+                 PreparedStatement cardRows = connection.prepareStatement(
+                         "INSERT INTO cards VALUES (?, ?, ?, 0, ?, -1, 0, 0, ?, 0, 0, 0, 0, 0, 0, 0, 0, '')")) {
+                StringBuilder fields = new StringBuilder();
+                MessageDigest digest = sha1();
+                int cardIndex = 0;
+                for (LearningCard card : cards) {
+                    long id = now + cardIndex;
+
+                    // render front and back field:
+                    fields.setLength(0);
+                    RenderContext context = new RenderContext(cardIndex);
+                    card.renderFront(fields, context, "");
+                    int frontLength = fields.length();
+                    fields.append(FIELD_SEPARATOR);
+                    card.renderBack(fields, context, "");
+                    String sortField = stripHTML(fields.substring(0, frontLength));
+
+                    notes.setLong(1, id);
+                    notes.setString(2, guids.next(card));
+                    notes.setLong(3, MODEL_ID);
+                    notes.setLong(4, nowSeconds);
+                    notes.setString(5, fields.toString());
+                    notes.setString(6, sortField);
+                    notes.setLong(7, checksum(digest, sortField));
+                    notes.addBatch();
+
+                    cardRows.setLong(1, id);
+                    cardRows.setLong(2, id);
+                    cardRows.setLong(3, deckID);
+                    cardRows.setLong(4, nowSeconds);
+                    cardRows.setLong(5, cardIndex + 1);
+                    cardRows.addBatch();
+
+                    cardIndex++;
+                    if (cardIndex % BATCH_SIZE == 0) {
+                        notes.executeBatch();
+                        cardRows.executeBatch();
+                    }
+                }
+                notes.executeBatch();
+                cardRows.executeBatch();
+            }
+
+            executeAll(connection, INDICES);
+            connection.commit();
+        }
+    }
+
+    /** Executes all given SQL statements separated by semicolons. */
+    private static void executeAll(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String part : sql.split(";")) {
+                if (!part.isBlank()) statement.addBatch(part);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /** Returns name given to the constructor or the name of the output file. */
+    @Override
+    protected String getDefaultDeckName(String output_file) {
+        return this.deckName != null ? this.deckName : super.getDefaultDeckName(output_file);
+    }
+
+    /** Returns whether the SQLite JDBC driver and its dependencies (e.g. slf4j-api) can be loaded. */
+    private static boolean isDriverAvailable() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /** Returns ID of deck with given name, which stays the same for each export of the deck. */
+    private static long getDeckID(String name) {
+        byte[] hash = sha1().digest(name.getBytes(StandardCharsets.UTF_8));
+        long id = 0;
+        for (int i = 0; i < 6; i++) {
+            id = (id << 8) | (hash[i] & 0xFF);
+        }
+        return id + 2;
+    }
+
+    /** Returns checksum of sort field as computed by Anki (first 32 bits of its SHA-1 hash). */
+    private static long checksum(MessageDigest digest, String sortField) {
+        byte[] hash = digest.digest(sortField.getBytes(StandardCharsets.UTF_8));
+        return ((hash[0] & 0xFFL) << 24) | ((hash[1] & 0xFFL) << 16) | ((hash[2] & 0xFFL) << 8) | (hash[3] & 0xFFL);
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Removes all HTML tags from given field, as done by Anki for the sort field. */
+    private static String stripHTML(String field) {
+        StringBuilder output = new StringBuilder(field.length());
+        boolean inTag = false;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '<') inTag = true;
+            else if (c == '>' && inTag) inTag = false;
+            else if (!inTag) output.append(c);
+        }
+        return output.toString();
+    }
+
+    /** Returns given text as JSON string. */
+    private static String quote(String text) {
+        StringBuilder output = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') output.append('\\').append(c);
+            else if (c < ' ') output.append(String.format("\\u%04x", (int) c));
+            else output.append(c);
+        }
+        return output.append('"').toString();
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/** Converts all Markdown files of a directory tree on a bounded pool of worker threads. Larger files are scheduled
+ * first, so a single huge deck does not delay the end of the whole run. An error in one file does not stop the
+ * conversion of the remaining files, instead all errors are reported in a summary. */
+public class BatchConverter {
+
+    /** Contains result of converting a single file. */
+    public static class FileResult {
+        public final Path file;
+        public final long size;
+        public final int numCards;
+        public final long millis;
+        public final String error;
+
+        public FileResult(Path file, long size, int numCards, long millis, String error) {
+            this.file = file;
+            this.size = size;
+            this.numCards = numCards;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return this.error == null;
+        }
+    }
+
+    private final MarkdownLoader loader;
+
+    private final CardGenerator generator;
+
+    private final String outputExtension;
+
+    private final int numThreads;
+
+    /** Creates BatchConverter loading files with given loader and exporting them with given generator into files
+     * next to the Markdown files using given extension (e.g. ".txt"). */
+    public BatchConverter(MarkdownLoader loader, CardGenerator generator, String outputExtension, int numThreads) {
+        if (numThreads < 1)
+            throw new IllegalArgumentException("Number of threads has to be at least 1, but is " + numThreads + ".");
+        this.loader = loader;
+        this.generator = generator;
+        this.outputExtension = outputExtension;
+        this.numThreads = numThreads;
+    }
+
+    /** Returns all Markdown files in given directory tree, largest files first. */
+    private static List<Path> findMarkdownFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".md"))
+                    .sorted(Comparator.comparingLong(BatchConverter::fileSize).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    /** Converts single file of given directory and returns its result, replacing the output of a previous run. The
+     * output is written to a temporary file first, so the previous output stays intact if the conversion fails.
+     * Errors are caught and returned as part of the result. */
+    private FileResult convertFile(Path directory, Path file) {
+        long size = fileSize(file);
+        long start = System.nanoTime();
+        String fileName = file.getFileName().toString();
+        Path outputFile = file.resolveSibling(fileName.substring(0, fileName.length() - 3) + outputExtension);
+        Path tmpFile = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+
+        boolean replaced = false;
+        try {
+            List<LearningCard> cards = loader.loadCardFile(file.toString());
+            Files.deleteIfExists(tmpFile);
+            if (!generator.exportCards(cards, tmpFile.toString(), CardGenerator.getDeckName(directory, file)))
+                return new FileResult(file, size, 0, elapsedMillis(start), "Could not write output file " + outputFile + ".");
+            Files.move(tmpFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            replaced = true;
+            return new FileResult(file, size, cards.size(), elapsedMillis(start), null);
+        } catch (IOException | RuntimeException ex) {
+            return new FileResult(file, size, 0, elapsedMillis(start), ex.getClass().getSimpleName() + ": " + ex.getMessage());
+        } finally {
+
+            // remove incomplete output, the previous output file stays intact:
+            if (!replaced) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException ex) {
+                    // temporary file is replaced by the next run
+                }
+            }
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /** Converts all Markdown files in given directory tree and returns results in the order the files were scheduled
+     * (i.e. largest files first). */
+    public List<FileResult> convertDirectory(String directory) throws IOException {
+        Path root = Paths.get(directory);
+        List<Path> files = findMarkdownFiles(root);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(executor.submit(() -> convertFile(root, file)));
+            }
+
+            List<FileResult> output = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    output.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    output.add(new FileResult(files.get(i), fileSize(files.get(i)), 0, 0, ex.getCause().toString()));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Conversion was interrupted.", ex);
+                }
+            }
+            return output;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Prints timing of each file and summary of all errors to the console. */
+    public static void printSummary(List<FileResult> results) {
+        int failed = 0;
+        int numCards = 0;
+        long millis = 0;
+        for (FileResult r : results) {
+            System.out.printf("%-6s %8d ms %8d cards %12d bytes  %s%n",
+                    r.isSuccess() ? "OK" : "FAILED", r.millis, r.numCards, r.size, r.file);
+            numCards += r.numCards;
+            millis += r.millis;
+            if (!r.isSuccess()) failed++;
+        }
+
+        System.out.printf("%nConverted %d of %d files (%d cards, %d ms of work).%n",
+                results.size() - failed, results.size(), numCards, millis);
+        if (failed > 0) {
+            System.out.println("Errors:");
+            for (FileResult r : results) {
+                if (!r.isSuccess()) System.out.println("  " + r.file + ": " + r.error);
+            }
+        }
+    }
+
+    /** Converts all Markdown files in a directory tree.
+     * Usage: java BatchConverter directory [anki|html] [threads] */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java BatchConverter directory [anki|html] [threads]");
+            System.exit(1);
+        }
+        boolean html = args.length > 1 && args[1].equals("html");
+        int numThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        BatchConverter converter = new BatchConverter(new MarkdownLoader(),
+                html ? new HTMLCardGenerator() : new AnkiCardGenerator(), html ? ".html" : ".txt", numThreads);
+        List<FileResult> results = converter.convertDirectory(args[0]);
+        printSummary(results);
+        if (results.stream().anyMatch(r -> !r.isSuccess())) System.exit(1);
+    }
+}
@@ -1,4 +1,4 @@
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
 
@@ -10,16 +10,8 @@ public class BulletListElement extends ListElement {
     }
 
     @Override
-    public List<String> toHTML() {
-        List<String> output = new ArrayList<>();
-        output.add("<ul>");
-
-        for (String point : points) {
-            output.add(String.format("<li>%s</li>", point));
-        }
-
-        output.add("</ul>");
-        return output;
+    public void render(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        render(out, "<ul>", "</ul>", lineSeparator);
     }
 
     @Override
@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.util.List;
+
+
+/** LearningCard backed by a CardCache. The raw Markdown lines of the card are only parsed if the rendered output is
+ * not cached yet or if the content of the card is requested directly. Rendered output is stored in the cache. */
+public class CachedCard extends LearningCard {
+
+    private static final String ANKI_FORMAT = "anki";
+    private static final String HTML_FORMAT = "html";
+    private static final String FRONT_FORMAT = "front";
+    private static final String BACK_FORMAT = "back";
+
+    private final CardCache cache;
+
+    private final String key;
+
+    private RawCard rawCard;
+
+    private LearningCard card = null;
+
+    private boolean modified = false;
+
+    public CachedCard(RawCard rawCard, CardCache cache) {
+        this.cache = cache;
+        this.key = CardCache.hash(rawCard.content);
+        this.rawCard = rawCard;
+    }
+
+    /** Returns parsed card, parsing the raw lines of the card on first use. */
+    private synchronized LearningCard getCard() {
+        if (card == null) {
+            card = MarkdownLoader.parseCard(rawCard);
+            rawCard = null;
+        }
+        return card;
+    }
+
+    @Override
+    public void renderHTML(Appendable out, int cardIndex, String lineSeparator) throws IOException {
+        if (modified) {
+            getCard().renderHTML(out, cardIndex, lineSeparator);
+            return;
+        }
+
+        // cached entries always use '\n' as line separator:
+        String output = cache.get(key, HTML_FORMAT, cardIndex);
+        if (output == null) {
+            StringBuilder builder = new StringBuilder();
+            RenderContext context = new RenderContext(cardIndex);
+            getCard().renderHTML(builder, context, "\n");
+            output = builder.toString();
+            cache.put(key, HTML_FORMAT, cardIndex, context.hasCreatedIDs(), output);
+        }
+        out.append(lineSeparator.equals("\n") ? output : output.replace("\n", lineSeparator));
+    }
+
+    @Override
+    public void renderAnki(Appendable out, int cardIndex) throws IOException {
+        if (modified) {
+            getCard().renderAnki(out, cardIndex);
+            return;
+        }
+
+        String output = cache.get(key, ANKI_FORMAT, cardIndex);
+        if (output == null) {
+            StringBuilder builder = new StringBuilder();
+            RenderContext context = new RenderContext(cardIndex);
+            getCard().renderAnki(builder, context);
+            output = builder.toString();
+            cache.put(key, ANKI_FORMAT, cardIndex, context.hasCreatedIDs(), output);
+        }
+        out.append(output);
+    }
+
+    @Override
+    public void renderFront(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        if (modified) {
+            getCard().renderFront(out, context, lineSeparator);
+            return;
+        }
+        renderSide(true, out, context, lineSeparator);
+    }
+
+    @Override
+    public void renderBack(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        if (modified) {
+            getCard().renderBack(out, context, lineSeparator);
+            return;
+        }
+        renderSide(false, out, context, lineSeparator);
+    }
+
+    /** Writes front or back side of the card using the cache. As both sides share the IDs created by the context,
+     * each entry starts with a line containing the number of IDs created before and by the side. A cached side is only
+     * used if the context has created the same number of IDs, and the context is then advanced as if the side had
+     * been rendered. */
+    private void renderSide(boolean front, Appendable out, RenderContext context, String lineSeparator)
+            throws IOException {
+        String format = front ? FRONT_FORMAT : BACK_FORMAT;
+        int firstID = context.getNumIDs();
+        String entry = cache.get(key, format, context.getCardIndex());
+        int outputStart = entry == null ? -1 : entry.indexOf('\n') + 1;
+        if (outputStart > 0) {
+            String[] counts = entry.substring(0, outputStart - 1).split(" ");
+            if (counts.length == 2 && counts[0].equals(Integer.toString(firstID))) {
+                context.skipIDs(Integer.parseInt(counts[1]));
+                String output = entry.substring(outputStart);
+                out.append(lineSeparator.equals("\n") ? output : output.replace("\n", lineSeparator));
+                return;
+            }
+        }
+
+        // render side with '\n' as line separator and cache it:
+        StringBuilder builder = new StringBuilder();
+        if (front) getCard().renderFront(builder, context, "\n");
+        else getCard().renderBack(builder, context, "\n");
+        String output = builder.toString();
+        int createdIDs = context.getNumIDs() - firstID;
+        cache.put(key, format, context.getCardIndex(), createdIDs > 0, firstID + " " + createdIDs + "\n" + output);
+        out.append(lineSeparator.equals("\n") ? output : output.replace("\n", lineSeparator));
+    }
+
+    /** Returns heading of the card. Only the heading is parsed if the card has not been parsed yet. */
+    @Override
+    public synchronized HeadingElement getHeading() {
+        if (card != null) return card.getHeading();
+        return MarkdownLoader.parseCardHeading(rawCard.content.get(0));
+    }
+
+    @Override
+    public List<String> getFrontContent() {
+        return getCard().getFrontContent();
+    }
+
+    @Override
+    protected List<ContentElement> getFrontContentElements() {
+        return getCard().getFrontContentElements();
+    }
+
+    @Override
+    public List<String> getBackContent() {
+        return getCard().getBackContent();
+    }
+
+    @Override
+    protected List<ContentElement> getBackContentElements() {
+        return getCard().getBackContentElements();
+    }
+
+    @Override
+    public void extendFrontContent(ContentElement content) {
+        modified = true;
+        getCard().extendFrontContent(content);
+    }
+
+    @Override
+    public void extendBackContent(ContentElement content) {
+        modified = true;
+        getCard().extendBackContent(content);
+    }
+
+    @Override
+    protected String getName() {
+        return getCard().getName();
+    }
+
+    /** Returns type of the card. Only the heading is looked at if the card has not been parsed yet. */
+    @Override
+    protected synchronized Tag getTag() {
+        if (card != null) return card.getTag();
+        return MarkdownLoader.parseCardTag(rawCard.content.get(0));
+    }
+}
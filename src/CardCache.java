@@ -0,0 +1,78 @@
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/** Cache of rendered cards used by MarkdownLoader. Entries are keyed by a hash of the raw Markdown lines of a card and
+ * the output format, so unchanged cards neither have to be parsed nor rendered again. Entries are either stored in a
+ * directory (DiskCardCache) or kept in memory (MemoryCardCache). */
+public abstract class CardCache {
+
+    /** Version of the rendered output. Has to be increased whenever parsing or rendering of cards changes. */
+    public static final int RENDERER_VERSION = 1;
+
+    /** Marks entries whose output does not depend on the index of the card. */
+    protected static final int ANY_INDEX = -1;
+
+    protected final long maxBytes;
+
+    protected final AtomicLong currentBytes = new AtomicLong();
+
+    protected final AtomicLong hits = new AtomicLong();
+
+    protected final AtomicLong misses = new AtomicLong();
+
+    protected final AtomicLong evictions = new AtomicLong();
+
+    /** Creates cache limited to given number of bytes. */
+    protected CardCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Returns hash of given raw lines of a card, which is used as key of the cache. */
+    public static String hash(List<String> rawContent) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : rawContent) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Returns cached output of given format for card with given key and index (or null if it is not cached). */
+    public abstract String get(String key, String format, int cardIndex);
+
+    /** Stores output of given format for card with given key. If the output depends on the index of the card, the
+     * entry is only used for cards with the same index. */
+    public abstract void put(String key, String format, int cardIndex, boolean dependsOnIndex, String output);
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /** Returns current size of all cached entries in bytes. */
+    public long getSize() {
+        return currentBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[hits=%d, misses=%d, evictions=%d, size=%d bytes]",
+                getClass().getSimpleName(), getHits(), getMisses(), getEvictions(), getSize());
+    }
+}
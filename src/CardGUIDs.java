@@ -0,0 +1,91 @@
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/** Assigns stable GUIDs to the cards of one deck, so Anki updates existing notes when a deck is imported again.
+ * The GUID of a card is derived from the name of the deck and the text of the card's heading, or from the ID given
+ * by an {id:...} tag at the end of the heading. Cards with the same heading are numbered in their order. */
+class CardGUIDs {
+
+    /** Characters used for encoding GUIDs, which need no escaping in CSV files. */
+    private static final String GUID_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    /** Prefix of the heading tag declaring the ID of a card explicitly. */
+    private static final String ID_TAG = "id:";
+
+    private final String deckName;
+    private final MessageDigest digest;
+
+    /** Number of cards seen so far with each key. */
+    private final Map<String, Integer> occurrences = new HashMap<>();
+
+    /** GUIDs assigned while iterating over the cards, which have not been taken by the renderer yet. */
+    private final Map<Integer, String> assigned = new ConcurrentHashMap<>();
+
+    /** Creates CardGUIDs for deck with given name. */
+    CardGUIDs(String deckName) {
+        this.deckName = deckName;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not supported.", ex);
+        }
+    }
+
+    /** Returns GUID of given card, which has to be the next card of the deck. */
+    String next(LearningCard card) {
+        HeadingElement heading = card.getHeading();
+        String key = heading.getTag() != null && heading.getTag().startsWith(ID_TAG) ? heading.getTag() : heading.getText();
+        int occurrence = occurrences.merge(key, 1, Integer::sum);
+
+        // hash deck name and key, numbering cards with the same key:
+        String identity = deckName + '\u001f' + key + (occurrence > 1 ? "\u001f" + occurrence : "");
+        byte[] hash = digest.digest(identity.getBytes(StandardCharsets.UTF_8));
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (hash[i] & 0xFF);
+        }
+        return encode(value);
+    }
+
+    /** Returns given cards, assigning GUIDs to them while iterating over them. The GUIDs are computed on the iterating
+     * thread in the order of the cards, so the cards can be rendered in parallel and retrieve their GUID by take. */
+    Iterable<LearningCard> assignTo(Iterable<LearningCard> cards) {
+        return () -> new Iterator<>() {
+            private final Iterator<LearningCard> iterator = cards.iterator();
+            private int cardIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public LearningCard next() {
+                LearningCard card = iterator.next();
+                assigned.put(cardIndex++, CardGUIDs.this.next(card));
+                return card;
+            }
+        };
+    }
+
+    /** Returns and forgets GUID assigned to card with given index by assignTo. */
+    String take(int cardIndex) {
+        return assigned.remove(cardIndex);
+    }
+
+    /** Encodes given value as unsigned number using GUID_CHARS. */
+    private static String encode(long value) {
+        StringBuilder guid = new StringBuilder();
+        do {
+            guid.append(GUID_CHARS.charAt((int) Long.remainderUnsigned(value, GUID_CHARS.length())));
+            value = Long.divideUnsigned(value, GUID_CHARS.length());
+        } while (value != 0);
+        return guid.reverse().toString();
+    }
+}
@@ -1,7 +1,280 @@
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 
 /** Represents class of objects used for exporting LearningCards into different file formats. */
 public abstract class CardGenerator {
-    public abstract void exportCards(List<LearningCard> cards, String output_file);
+
+    /** Size of the buffer used for writing output files. */
+    protected static final int BUFFER_SIZE = 1 << 16;
+
+    /** Default number of cards rendered together by one worker thread. */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /** Renders single LearningCard with given index to given Appendable. */
+    @FunctionalInterface
+    protected interface CardRenderer {
+        void render(Appendable out, LearningCard card, int cardIndex) throws IOException;
+    }
+
+    /** Renders single LearningCard with given index to given Appendables, one for each written file. */
+    @FunctionalInterface
+    protected interface MultiCardRenderer {
+        void render(Appendable[] outs, LearningCard card, int cardIndex) throws IOException;
+    }
+
+    /** Number of threads used for rendering cards. A value of 1 renders all cards sequentially. */
+    private final int parallelism;
+
+    /** Number of cards rendered together into one buffer. */
+    private final int chunkSize;
+
+    /** Maximum number of rendered chunks waiting to be written, which limits the memory used by parallel rendering. */
+    private final int maxChunksInFlight;
+
+    /** Listener receiving metrics of exported files (or null). */
+    private final PipelineListener listener;
+
+    /** Creates CardGenerator rendering all cards sequentially. */
+    protected CardGenerator() {
+        this(1, DEFAULT_CHUNK_SIZE, 1);
+    }
+
+    /** Creates CardGenerator rendering chunks of cards on given number of threads. At most maxChunksInFlight rendered
+     * chunks are kept in memory, the chunks are written in the original order of the cards. */
+    protected CardGenerator(int parallelism, int chunkSize, int maxChunksInFlight) {
+        this(parallelism, chunkSize, maxChunksInFlight, null);
+    }
+
+    /** Creates CardGenerator like above, which reports the metrics of writing the cards of each exported file to
+     * given PipelineListener. */
+    protected CardGenerator(int parallelism, int chunkSize, int maxChunksInFlight, PipelineListener listener) {
+        if (parallelism < 1 || chunkSize < 1 || maxChunksInFlight < 1)
+            throw new IllegalArgumentException("Parallelism, chunk size and number of chunks in flight have to be at " +
+                    "least 1, but are " + parallelism + ", " + chunkSize + " and " + maxChunksInFlight + ".");
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+        this.listener = listener;
+    }
+
+    /** Exports given cards to given file. Cards are rendered and written one after another, so the cards can be
+     * provided lazily (e.g. by MarkdownLoader.streamCardFile). Returns whether the file was written completely, errors
+     * are printed to the console. The deck is identified by the name of the output file (see getDefaultDeckName). */
+    public boolean exportCards(Iterable<LearningCard> cards, String output_file) {
+        return this.exportCards(cards, output_file, this.getDefaultDeckName(output_file));
+    }
+
+    /** Exports given cards of the deck identified by given name to given file (see above). The name of the deck is
+     * used for deriving stable GUIDs of its cards (see CardGUIDs), so it should stay the same whenever the deck is
+     * exported, no matter to which file, and differ between decks, e.g. the path of its Markdown file relative to the
+     * directory containing all decks (see getDeckName). */
+    public abstract boolean exportCards(Iterable<LearningCard> cards, String output_file, String deckName);
+
+    /** Exports given stream of cards to given file (see above). */
+    public boolean exportCards(Stream<LearningCard> cards, String output_file) {
+        return this.exportCards((Iterable<LearningCard>) cards::iterator, output_file);
+    }
+    public boolean exportCards(Stream<LearningCard> cards, String output_file, String deckName) {
+        return this.exportCards((Iterable<LearningCard>) cards::iterator, output_file, deckName);
+    }
+
+    /** Returns name identifying the deck stored in given Markdown file, which is the path of the file relative to
+     * given directory containing all decks, without its extension and using '/' as separator. */
+    public static String getDeckName(Path directory, Path file) {
+        Path relative = directory.toAbsolutePath().normalize().relativize(file.toAbsolutePath().normalize());
+        String name = relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+        return name.endsWith(".md") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    /** Creates new output file and returns buffered writer for it (or null if the file could not be created). */
+    protected static BufferedWriter createOutputFile(String output_file) {
+        OutputStream out = createOutputStream(output_file);
+        return out != null ? new OutputFileWriter(output_file, out) : null;
+    }
+
+    /** Creates new output file and returns unbuffered stream for it (or null if the file could not be created). */
+    protected static OutputStream createOutputStream(String output_file) {
+        try {
+            Path filePath = Paths.get(output_file);
+            return Files.newOutputStream(filePath, StandardOpenOption.CREATE_NEW);
+        } catch (FileAlreadyExistsException ex) {
+            System.err.println("A file with the given name already exists.");
+        } catch (IOException | InvalidPathException ex) {
+            System.err.println("The given file name is invalid.");
+        }
+        return null;
+    }
+
+    /** Returns name identifying the deck exported to given file if no name is given, which is the name of the file
+     * without its extension. */
+    protected String getDefaultDeckName(String output_file) {
+        String fileName = Paths.get(output_file).getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+
+    /** Buffered writer of an output file counting the bytes written to the file. */
+    private static class OutputFileWriter extends BufferedWriter {
+        private final String file;
+        private final CountingOutputStream counter;
+
+        private OutputFileWriter(String file, OutputStream out) {
+            this(file, new CountingOutputStream(out));
+        }
+
+        private OutputFileWriter(String file, CountingOutputStream counter) {
+            super(new OutputStreamWriter(counter, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.file = file;
+            this.counter = counter;
+        }
+
+        /** Returns number of bytes written to the file, including all buffered characters. */
+        private long getBytesWritten() throws IOException {
+            this.flush();
+            return counter.count;
+        }
+    }
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /** Renders given cards using given CardRenderer and writes them to given Writer in their original order. If more
+     * than one thread is configured, chunks of cards are rendered in parallel into separate buffers. The metrics of
+     * writing the cards are reported as stage EXPORT_CARDS. */
+    protected void writeCards(Iterable<LearningCard> cards, Writer writer, CardRenderer renderer) throws IOException {
+        this.writeCards(cards, new Writer[]{writer}, (outs, card, cardIndex) -> renderer.render(outs[0], card, cardIndex));
+    }
+
+    /** Renders given cards like above, but writes the output of each card to several Writers at once, so that all
+     * files are written in a single pass over the cards. The metrics are reported once for all files. */
+    protected void writeCards(Iterable<LearningCard> cards, Writer[] writers, MultiCardRenderer renderer)
+            throws IOException {
+        List<String> files = new ArrayList<>(writers.length);
+        for (Writer writer : writers) {
+            if (writer instanceof OutputFileWriter w) files.add(w.file);
+        }
+        StageRecorder recorder = new StageRecorder(listener, files.isEmpty() ? null : String.join(", ", files));
+        long start = recorder.time();
+        long allocated = parallelism == 1 ? recorder.allocatedBytes() : -1;
+
+        int numCards = this.renderCards(cards, writers, renderer);
+
+        if (recorder.isActive()) {
+            long bytes = 0;
+            for (Writer writer : writers) {
+                bytes = writer instanceof OutputFileWriter w && bytes >= 0 ? bytes + w.getBytesWritten() : -1;
+            }
+            recorder.record(PipelineListener.Stage.EXPORT_CARDS, start, allocated, numCards, -1, bytes);
+        }
+    }
+
+    /** Renders and writes given cards as described by writeCards and returns the number of cards. */
+    private int renderCards(Iterable<LearningCard> cards, Writer[] writers, MultiCardRenderer renderer)
+            throws IOException {
+
+        // special case: render all cards sequentially:
+        if (parallelism == 1) {
+            int cardIndex = 0;
+            for (LearningCard c : cards) {
+                renderer.render(writers, c, cardIndex++);
+            }
+            return cardIndex;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<Future<StringBuilder[]>> inFlight = new ArrayDeque<>();
+        try {
+            List<LearningCard> chunk = new ArrayList<>(chunkSize);
+            int chunkStart = 0;
+
+            // submit chunks of cards, write oldest chunk as soon as too many chunks are in flight:
+            for (LearningCard c : cards) {
+                chunk.add(c);
+                if (chunk.size() == chunkSize) {
+                    inFlight.add(executor.submit(renderChunk(chunk, chunkStart, writers.length, renderer)));
+                    chunkStart += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                if (inFlight.size() >= maxChunksInFlight) {
+                    writeChunk(writers, awaitChunk(inFlight.poll()));
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(executor.submit(renderChunk(chunk, chunkStart, writers.length, renderer)));
+            }
+
+            // write remaining chunks:
+            while (!inFlight.isEmpty()) {
+                writeChunk(writers, awaitChunk(inFlight.poll()));
+            }
+            return chunkStart + chunk.size();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Helper methods to render chunk of cards into separate buffers (one per Writer), wait for them and write them. */
+    private static Callable<StringBuilder[]> renderChunk(List<LearningCard> chunk, int chunkStart, int numBuffers,
+                                                        MultiCardRenderer renderer) {
+        return () -> {
+            StringBuilder[] buffers = new StringBuilder[numBuffers];
+            for (int i = 0; i < numBuffers; i++) {
+                buffers[i] = new StringBuilder();
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                renderer.render(buffers, chunk.get(i), chunkStart + i);
+            }
+            return buffers;
+        };
+    }
+    private static StringBuilder[] awaitChunk(Future<StringBuilder[]> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering of cards was interrupted.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException ioEx) throw ioEx;
+            if (ex.getCause() instanceof RuntimeException rtEx) throw rtEx;
+            throw new IOException(ex.getCause());
+        }
+    }
+    private static void writeChunk(Writer[] writers, StringBuilder[] buffers) throws IOException {
+        for (int i = 0; i < writers.length; i++) {
+            writers[i].append(buffers[i]);
+        }
+    }
 }
@@ -0,0 +1,21 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+
+/** Represents output format of a MultiTargetCardGenerator, which writes cards rendered once into a file of its own.
+ * Implementations must not keep state between cards, since cards may be written concurrently into separate buffers. */
+public interface CardSink {
+
+    /** Returns extension of the files written by this sink (e.g. ".html"). */
+    String getExtension();
+
+    /** Writes everything in front of the first card to given file. */
+    void writeHeader(BufferedWriter writer) throws IOException;
+
+    /** Writes given rendered card to given Appendable. */
+    void writeCard(Appendable out, RenderedCard card) throws IOException;
+
+    /** Writes everything after the last card to given file. */
+    default void writeFooter(BufferedWriter writer) throws IOException {
+    }
+}
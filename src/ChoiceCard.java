@@ -1,21 +1,35 @@
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 /** Represents LearningCard composed of title and list of content elements containing ChoiceElements. */
 public class ChoiceCard extends LearningCard {
     private final List<ContentElement> content = new ArrayList<>();
 
+    /** Unmodifiable views of the choices and both sides, created on first use and reset whenever the card is
+     * extended. */
+    private List<ContentElement> choiceView;
+    private List<ContentElement> frontView;
+    private List<ContentElement> backView;
+
     public ChoiceCard(HeadingElement heading, List<ContentElement> content) {
         this.heading = heading;
         this.content.addAll(content);
     }
 
+    /** Returns unmodifiable list of all ChoiceElements of the card. */
     public List<ContentElement> getChoiceElements() {
-        return content.stream().filter(
-                c -> c.getElementTag() == ElementTag.RIGHT_ANSWER || c.getElementTag() == ElementTag.WRONG_ANSWER
-        ).collect(Collectors.toList());
+        List<ContentElement> view = this.choiceView;
+        if (view == null) {
+            List<ContentElement> choices = new ArrayList<>();
+            for (ContentElement c : content) {
+                if (c.getElementTag() == ElementTag.RIGHT_ANSWER || c.getElementTag() == ElementTag.WRONG_ANSWER)
+                    choices.add(c);
+            }
+            view = List.copyOf(choices);
+            this.choiceView = view;
+        }
+        return view;
     }
 
     @Override
@@ -28,10 +42,16 @@ public class ChoiceCard extends LearningCard {
 
     @Override
     protected List<ContentElement> getFrontContentElements() {
-        List<ContentElement> frontContent = new ArrayList<>();
-        frontContent.add(heading);
-        frontContent.addAll(this.getChoiceElements());
-        return frontContent;
+        List<ContentElement> view = this.frontView;
+        if (view == null) {
+            List<ContentElement> choices = this.getChoiceElements();
+            List<ContentElement> frontContent = new ArrayList<>(choices.size() + 1);
+            frontContent.add(heading);
+            frontContent.addAll(choices);
+            view = List.copyOf(frontContent);
+            this.frontView = view;
+        }
+        return view;
     }
 
     @Override
@@ -41,21 +61,40 @@ public class ChoiceCard extends LearningCard {
 
     @Override
     protected List<ContentElement> getBackContentElements() {
-        return content;
+        List<ContentElement> view = this.backView;
+        if (view == null) {
+            view = List.copyOf(content);
+            this.backView = view;
+        }
+        return view;
     }
 
     @Override
     public void extendFrontContent(ContentElement content) {
         this.content.add(content);
+        this.invalidateViews();
     }
 
     @Override
     public void extendBackContent(ContentElement content) {
         this.content.add(content);
+        this.invalidateViews();
+    }
+
+    /** Resets the cached views after the content changed. */
+    private void invalidateViews() {
+        this.choiceView = null;
+        this.frontView = null;
+        this.backView = null;
     }
 
     @Override
     protected String getName() {
         return "ChoiceCard";
     }
+
+    @Override
+    protected Tag getTag() {
+        return Tag.CHOICE;
+    }
 }
@@ -1,11 +1,9 @@
-import java.util.List;
+import java.io.IOException;
 
 
 /** ContentElement representing ONE multiple choice answer and if it is correct or not. */
 public class ChoiceElement extends ContentElement {
 
-    private static int numIDs = 0;
-
     private final boolean isCorrect;
 
     private String text;
@@ -15,23 +13,36 @@ public class ChoiceElement extends ContentElement {
         this.text = text;
     }
 
+    public boolean isCorrect() {
+        return this.isCorrect;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
     @Override
     public void parseInlineFormatting() {
         text = parseInlineFormatting(text);
+        invalidateRendering();
     }
 
     @Override
     public void parseLinks() {
         text = parseLinks(text);
+        invalidateRendering();
+    }
+
+    @Override
+    protected boolean usesRenderContext() {
+        return true;
     }
 
     @Override
-    public List<String> toHTML() {
-        numIDs++;
-        return List.of(
-                String.format("<input type=\"checkbox\" id=\"cElem%d\">", numIDs),
-                String.format("<label for=\"cElem%d\"> %s</label><br>", numIDs, text)
-        );
+    public void render(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        String id = context.nextID("cElem");
+        out.append("<input type=\"checkbox\" id=\"").append(id).append("\">").append(lineSeparator);
+        out.append("<label for=\"").append(id).append("\"> ").append(text).append("</label><br>").append(lineSeparator);
     }
 
     @Override
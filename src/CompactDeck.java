@@ -0,0 +1,500 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/** Immutable and compact representation of a list of LearningCards. Instead of separate objects for every card,
+ * element and line, all text is stored UTF-8 encoded in one shared byte buffer and all cards and elements are described by parallel
+ * arrays of primitives (e.g. ElementTag ordinals and offsets into the buffer). Headings with equal text share the
+ * same range of the buffer. Cards are accessed through lightweight CompactCard views, which create their
+ * ContentElement objects only while they are used. The arrays can be written to a binary file, which is loaded much
+ * faster than parsing the Markdown file again. */
+public class CompactDeck {
+
+    /** Version of the binary format. Has to be increased whenever the layout of the arrays changes. */
+    public static final int FORMAT_VERSION = 1;
+
+    /** First bytes of each binary file ("CDCK"). */
+    private static final int MAGIC = 0x4B434443;
+
+    /** Length of the SHA-256 hash of the Markdown file stored in each binary file. */
+    private static final int HASH_LENGTH = 32;
+
+    /** Magic, format version, renderer version, hash and number of bytes, texts, elements, card elements and cards. */
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + HASH_LENGTH + 5 * Integer.BYTES;
+
+    private static final Tag[] TAGS = Tag.values();
+    private static final ElementTag[] ELEMENT_TAGS = ElementTag.values();
+
+    /** Shared buffer containing the UTF-8 encoded text of all elements. */
+    private final byte[] buffer;
+
+    /** Start and length of each text in the buffer. */
+    private final int[] textStarts;
+    private final int[] textLengths;
+
+    /** ElementTag ordinal, additional information (level of heading or 1 for correct answers) and index of first text
+     * of each element. The texts of element i are the texts firstTexts[i] until firstTexts[i + 1], a heading consists
+     * of its text and its tag. */
+    private final byte[] elementTags;
+    private final int[] elementInfos;
+    private final int[] firstTexts;
+
+    /** Tag ordinal of each card and indices of its elements. The front side of card i consists of the elements
+     * cardElements[frontStarts[i]] until cardElements[backStarts[i]], the back side of the following elements until
+     * cardElements[frontStarts[i + 1]]. */
+    private final byte[] cardTags;
+    private final int[] cardElements;
+    private final int[] frontStarts;
+    private final int[] backStarts;
+
+    private CompactDeck(byte[] buffer, int[] textStarts, int[] textLengths, byte[] elementTags, int[] elementInfos,
+                        int[] firstTexts, byte[] cardTags, int[] cardElements, int[] frontStarts, int[] backStarts) {
+        this.buffer = buffer;
+        this.textStarts = textStarts;
+        this.textLengths = textLengths;
+        this.elementTags = elementTags;
+        this.elementInfos = elementInfos;
+        this.firstTexts = firstTexts;
+        this.cardTags = cardTags;
+        this.cardElements = cardElements;
+        this.frontStarts = frontStarts;
+        this.backStarts = backStarts;
+    }
+
+    private CompactDeck(Builder builder) {
+        this(Arrays.copyOf(builder.buffer, builder.bufferLength),
+                Arrays.copyOf(builder.textStarts, builder.numTexts),
+                Arrays.copyOf(builder.textLengths, builder.numTexts),
+                Arrays.copyOf(builder.elementTags, builder.numElements),
+                Arrays.copyOf(builder.elementInfos, builder.numElements),
+                Arrays.copyOf(builder.firstTexts, builder.numElements + 1),
+                Arrays.copyOf(builder.cardTags, builder.numCards),
+                Arrays.copyOf(builder.cardElements, builder.numCardElements),
+                Arrays.copyOf(builder.frontStarts, builder.numCards + 1),
+                Arrays.copyOf(builder.backStarts, builder.numCards));
+    }
+
+    /** Creates CompactDeck containing given cards. */
+    public static CompactDeck of(List<LearningCard> cards) {
+        Builder builder = new Builder();
+        for (LearningCard c : cards) {
+            builder.addCard(c);
+        }
+        return new CompactDeck(builder);
+    }
+
+    public int getNumCards() {
+        return cardTags.length;
+    }
+
+    /** Returns view of given card. */
+    public LearningCard getCard(int index) {
+        return new CompactCard(this, index);
+    }
+
+    /** Returns views of all cards as unmodifiable list, e.g. used for exporting the cards. */
+    public List<LearningCard> asList() {
+        return new AbstractList<>() {
+            @Override
+            public LearningCard get(int index) {
+                return getCard(index);
+            }
+
+            @Override
+            public int size() {
+                return getNumCards();
+            }
+        };
+    }
+
+    /** Returns SHA-256 hash of given content of a Markdown file, e.g. used to detect whether a binary file written by
+     * write() is outdated. */
+    public static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Writes all arrays to given binary file together with the given hash of the Markdown file the cards were
+     * loaded from. The file is written to a temporary file first and replaces the previous file afterwards. */
+    public void write(String file_path, byte[] sourceHash) throws IOException {
+        if (sourceHash.length != HASH_LENGTH)
+            throw new IllegalArgumentException("Hash has to consist of " + HASH_LENGTH + " bytes.");
+        Path file = Paths.get(file_path);
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            // write header:
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(CardCache.RENDERER_VERSION).put(sourceHash);
+            out.putInt(buffer.length).putInt(textStarts.length).putInt(elementTags.length);
+            out.putInt(cardElements.length).putInt(cardTags.length);
+
+            // write arrays:
+            for (int[] array : new int[][]{textStarts, textLengths, elementInfos, firstTexts, cardElements, frontStarts,
+                    backStarts}) {
+                writeInts(channel, out, array);
+            }
+            for (byte[] array : new byte[][]{elementTags, cardTags, buffer}) {
+                writeBytes(channel, out, array);
+            }
+            flush(channel, out);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Helper methods to write arrays through given buffer, which is flushed to the channel whenever it is full. */
+    private static void writeInts(FileChannel channel, ByteBuffer out, int[] array) throws IOException {
+        int written = 0;
+        while (written < array.length) {
+            if (out.remaining() < Integer.BYTES) flush(channel, out);
+            int length = Math.min(array.length - written, out.remaining() / Integer.BYTES);
+            out.asIntBuffer().put(array, written, length);
+            out.position(out.position() + length * Integer.BYTES);
+            written += length;
+        }
+    }
+    private static void writeBytes(FileChannel channel, ByteBuffer out, byte[] array) throws IOException {
+        int written = 0;
+        while (written < array.length) {
+            if (!out.hasRemaining()) flush(channel, out);
+            int length = Math.min(array.length - written, out.remaining());
+            out.put(array, written, length);
+            written += length;
+        }
+    }
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /** Reads CompactDeck from given binary file written by write(). The file is mapped into memory and its arrays are
+     * copied in bulk. Returns null if the file was written by another version or for a Markdown file with another
+     * hash, i.e. if it has to be created again. Throws IOException if the file can not be read or is damaged. */
+    public static CompactDeck read(String file_path, byte[] sourceHash) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file_path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+                throw new IOException("Invalid size of compiled deck " + file_path + ": " + size + " bytes.");
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+
+            // check header:
+            if (in.getInt() != MAGIC) throw new IOException(file_path + " is not a compiled deck.");
+            if (in.getInt() != FORMAT_VERSION || in.getInt() != CardCache.RENDERER_VERSION) return null;
+            byte[] storedHash = new byte[HASH_LENGTH];
+            in.get(storedHash);
+            if (!Arrays.equals(storedHash, sourceHash)) return null;
+
+            int numBytes = in.getInt();
+            int numTexts = in.getInt();
+            int numElements = in.getInt();
+            int numCardElements = in.getInt();
+            int numCards = in.getInt();
+            long numInts = 2L * numTexts + 2L * numElements + 1 + numCardElements + 2L * numCards + 1;
+            long expectedSize = HEADER_SIZE + numInts * Integer.BYTES + numElements + numCards + (long) numBytes;
+            if (Math.min(Math.min(numBytes, numTexts), Math.min(numElements, Math.min(numCardElements, numCards))) < 0
+                    || expectedSize != size)
+                throw new IOException("Compiled deck " + file_path + " is damaged.");
+
+            // read arrays:
+            IntBuffer ints = in.asIntBuffer();
+            int[] textStarts = readInts(ints, numTexts);
+            int[] textLengths = readInts(ints, numTexts);
+            int[] elementInfos = readInts(ints, numElements);
+            int[] firstTexts = readInts(ints, numElements + 1);
+            int[] cardElements = readInts(ints, numCardElements);
+            int[] frontStarts = readInts(ints, numCards + 1);
+            int[] backStarts = readInts(ints, numCards);
+            in.position(in.position() + ints.position() * Integer.BYTES);
+            byte[] elementTags = readBytes(in, numElements);
+            byte[] cardTags = readBytes(in, numCards);
+            byte[] buffer = readBytes(in, numBytes);
+            if (!isConsistent(buffer, textStarts, textLengths, elementTags, firstTexts, cardTags, cardElements,
+                    frontStarts, backStarts))
+                throw new IOException("Compiled deck " + file_path + " is damaged.");
+
+            return new CompactDeck(buffer, textStarts, textLengths, elementTags, elementInfos, firstTexts, cardTags,
+                    cardElements, frontStarts, backStarts);
+        }
+    }
+    /** Returns whether all offsets and ordinals of given arrays are within bounds and all ranges are monotonic, i.e.
+     * whether the cards can be accessed without any exception. */
+    private static boolean isConsistent(byte[] buffer, int[] textStarts, int[] textLengths, byte[] elementTags,
+                                        int[] firstTexts, byte[] cardTags, int[] cardElements, int[] frontStarts,
+                                        int[] backStarts) {
+
+        // texts have to be ranges of the buffer:
+        for (int t = 0; t < textStarts.length; t++) {
+            if (textStarts[t] < 0 || textLengths[t] < 0 || textLengths[t] > buffer.length - textStarts[t]) return false;
+        }
+
+        // elements have to consist of consecutive texts, headings of their text and tag and answers of one text:
+        int numElements = elementTags.length;
+        if (firstTexts[0] != 0 || firstTexts[numElements] != textStarts.length) return false;
+        for (int e = 0; e < numElements; e++) {
+            int numTexts = firstTexts[e + 1] - firstTexts[e];
+            if (firstTexts[e + 1] < firstTexts[e] || elementTags[e] < 0 || elementTags[e] >= ELEMENT_TAGS.length)
+                return false;
+            boolean valid = switch (ELEMENT_TAGS[elementTags[e]]) {
+                case HEADING -> numTexts == 2;
+                case WRONG_ANSWER, RIGHT_ANSWER -> numTexts == 1;
+                case TEXT_BLOCK, BULLET_LIST, ORDERED_LIST -> true;
+                case EMPTY_LINE -> false;
+            };
+            if (!valid) return false;
+        }
+        for (int element : cardElements) {
+            if (element < 0 || element >= numElements) return false;
+        }
+
+        // cards have to consist of consecutive card elements, starting with their heading:
+        int numCards = cardTags.length;
+        if (frontStarts[0] != 0 || frontStarts[numCards] != cardElements.length) return false;
+        for (int c = 0; c < numCards; c++) {
+            if (cardTags[c] < 0 || cardTags[c] >= TAGS.length) return false;
+            if (frontStarts[c] >= backStarts[c] || backStarts[c] > frontStarts[c + 1]) return false;
+            if (ELEMENT_TAGS[elementTags[cardElements[frontStarts[c]]]] != ElementTag.HEADING) return false;
+        }
+        return true;
+    }
+
+    private static int[] readInts(IntBuffer in, int length) {
+        int[] output = new int[length];
+        in.get(output);
+        return output;
+    }
+    private static byte[] readBytes(ByteBuffer in, int length) {
+        byte[] output = new byte[length];
+        in.get(output);
+        return output;
+    }
+
+    /** Helper methods to create ContentElement objects of stored elements. */
+    private String getText(int text) {
+        return new String(buffer, textStarts[text], textLengths[text], StandardCharsets.UTF_8);
+    }
+    private List<String> getTexts(int element) {
+        List<String> output = new ArrayList<>(firstTexts[element + 1] - firstTexts[element]);
+        for (int t = firstTexts[element]; t < firstTexts[element + 1]; t++) {
+            output.add(getText(t));
+        }
+        return output;
+    }
+    private ContentElement createElement(int element) {
+        return switch (ELEMENT_TAGS[elementTags[element]]) {
+            case HEADING -> new HeadingElement(elementInfos[element], getText(firstTexts[element] + 1),
+                    getText(firstTexts[element]));
+            case TEXT_BLOCK -> new TextBlockElement(getTexts(element));
+            case BULLET_LIST -> new BulletListElement(getTexts(element));
+            case ORDERED_LIST -> new OrderedListElement(getTexts(element));
+            case WRONG_ANSWER, RIGHT_ANSWER -> new ChoiceElement(elementInfos[element] == 1, getText(firstTexts[element]));
+            case EMPTY_LINE -> throw new IllegalStateException("Empty lines are not stored as elements.");
+        };
+    }
+    private List<ContentElement> createElements(int from, int to) {
+        List<ContentElement> output = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            output.add(createElement(cardElements[i]));
+        }
+        return output;
+    }
+
+    /** Immutable view of a single card of a CompactDeck. */
+    public static class CompactCard extends LearningCard {
+
+        private final CompactDeck deck;
+
+        private final int index;
+
+        private CompactCard(CompactDeck deck, int index) {
+            this.deck = deck;
+            this.index = index;
+        }
+
+        @Override
+        public HeadingElement getHeading() {
+            return (HeadingElement) deck.createElement(deck.cardElements[deck.frontStarts[index]]);
+        }
+
+        @Override
+        public List<String> getFrontContent() {
+            return ContentElement.listToString(getFrontContentElements());
+        }
+
+        @Override
+        protected List<ContentElement> getFrontContentElements() {
+            return deck.createElements(deck.frontStarts[index], deck.backStarts[index]);
+        }
+
+        @Override
+        public List<String> getBackContent() {
+            return ContentElement.listToString(getBackContentElements());
+        }
+
+        @Override
+        protected List<ContentElement> getBackContentElements() {
+            return deck.createElements(deck.backStarts[index], deck.frontStarts[index + 1]);
+        }
+
+        @Override
+        public void extendFrontContent(ContentElement content) {
+            throw new UnsupportedOperationException("Cards of a CompactDeck can not be modified.");
+        }
+
+        @Override
+        public void extendBackContent(ContentElement content) {
+            throw new UnsupportedOperationException("Cards of a CompactDeck can not be modified.");
+        }
+
+        @Override
+        protected String getName() {
+            return switch (getTag()) {
+                case NONE -> "SimpleCard";
+                case QUESTION -> "QuestionCard";
+                case CHOICE -> "ChoiceCard";
+            };
+        }
+
+        @Override
+        protected Tag getTag() {
+            return TAGS[deck.cardTags[index]];
+        }
+    }
+
+    /** Collects cards into growing arrays, which are trimmed when the CompactDeck is created. */
+    private static class Builder {
+        byte[] buffer = new byte[1024];
+        int bufferLength = 0;
+
+        int[] textStarts = new int[64];
+        int[] textLengths = new int[64];
+        int numTexts = 0;
+
+        byte[] elementTags = new byte[64];
+        int[] elementInfos = new int[64];
+        int[] firstTexts = new int[65];
+        int numElements = 0;
+
+        byte[] cardTags = new byte[16];
+        int[] cardElements = new int[64];
+        int[] frontStarts = new int[17];
+        int[] backStarts = new int[16];
+        int numCardElements = 0;
+        int numCards = 0;
+
+        /** Texts of headings, which are shared by all headings with equal text. */
+        final Map<String, Integer> headingTexts = new HashMap<>();
+
+        /** Elements of the current card, so elements shown on both sides are only stored once. */
+        final Map<ContentElement, Integer> cardElementIndices = new IdentityHashMap<>();
+
+        void addCard(LearningCard card) {
+            if (numCards + 1 == cardTags.length) {
+                cardTags = Arrays.copyOf(cardTags, 2 * cardTags.length);
+                frontStarts = Arrays.copyOf(frontStarts, 2 * frontStarts.length);
+                backStarts = Arrays.copyOf(backStarts, 2 * backStarts.length);
+            }
+            cardTags[numCards] = (byte) card.getTag().ordinal();
+
+            cardElementIndices.clear();
+            frontStarts[numCards] = numCardElements;
+            for (ContentElement cElem : card.getFrontContentElements()) addCardElement(cElem);
+            backStarts[numCards] = numCardElements;
+            for (ContentElement cElem : card.getBackContentElements()) addCardElement(cElem);
+            numCards++;
+            frontStarts[numCards] = numCardElements;
+        }
+
+        private void addCardElement(ContentElement cElem) {
+            if (numCardElements == cardElements.length) cardElements = Arrays.copyOf(cardElements, 2 * numCardElements);
+            Integer element = cardElementIndices.get(cElem);
+            if (element == null) {
+                element = addElement(cElem);
+                cardElementIndices.put(cElem, element);
+            }
+            cardElements[numCardElements++] = element;
+        }
+
+        private int addElement(ContentElement cElem) {
+            if (numElements + 1 == elementTags.length) {
+                elementTags = Arrays.copyOf(elementTags, 2 * elementTags.length);
+                elementInfos = Arrays.copyOf(elementInfos, 2 * elementInfos.length);
+                firstTexts = Arrays.copyOf(firstTexts, 2 * firstTexts.length);
+            }
+            elementTags[numElements] = (byte) cElem.getElementTag().ordinal();
+            firstTexts[numElements] = numTexts;
+
+            if (cElem instanceof HeadingElement heading) {
+                elementInfos[numElements] = heading.getLevel();
+                addHeadingText(heading.getText());
+                addHeadingText(heading.getTag());
+            } else if (cElem instanceof ChoiceElement choice) {
+                elementInfos[numElements] = choice.isCorrect() ? 1 : 0;
+                addText(choice.getText());
+            } else if (cElem instanceof ListElement list) {
+                for (String point : list.getPoints()) addText(point);
+            } else if (cElem instanceof TextBlockElement textBlock) {
+                for (String line : textBlock.getLines()) addText(line);
+            } else {
+                throw new IllegalArgumentException("Unsupported ContentElement: " + cElem.getClass().getName());
+            }
+
+            numElements++;
+            firstTexts[numElements] = numTexts;
+            return numElements - 1;
+        }
+
+        private void addHeadingText(String text) {
+            Integer interned = headingTexts.get(text);
+            if (interned == null) {
+                headingTexts.put(text, numTexts);
+                addText(text);
+                return;
+            }
+            addTextRange(textStarts[interned], textLengths[interned]);
+        }
+
+        private void addText(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            while (bufferLength + bytes.length > buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            System.arraycopy(bytes, 0, buffer, bufferLength, bytes.length);
+            addTextRange(bufferLength, bytes.length);
+            bufferLength += bytes.length;
+        }
+
+        private void addTextRange(int start, int length) {
+            if (numTexts == textStarts.length) {
+                textStarts = Arrays.copyOf(textStarts, 2 * numTexts);
+                textLengths = Arrays.copyOf(textLengths, 2 * numTexts);
+            }
+            textStarts[numTexts] = start;
+            textLengths[numTexts] = length;
+            numTexts++;
+        }
+    }
+}
@@ -1,7 +1,8 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /** Represents block of content (e.g. heading, text block, bullet list, ...). */
@@ -13,16 +14,121 @@ public abstract class ContentElement {
     /** Replaces Markdown links with HTML tags. */
     public abstract void parseLinks();
 
+    /** Writes HTML representation of content element directly to given Appendable using given RenderContext (e.g.
+     * for creating IDs). Each line of HTML is followed by given line separator. */
+    public abstract void render(Appendable out, RenderContext context, String lineSeparator) throws IOException;
+
+    /** Returns whether the output of render() depends on the given RenderContext (e.g. because IDs are created).
+     * The output of all other elements only changes with their content, so it is rendered once and memoized. */
+    protected boolean usesRenderContext() {
+        return false;
+    }
+
+    /** Memoized output of render(), reset by invalidateRendering(). The fields only ever hold immutable objects, so
+     * concurrent readers either see a complete rendering or render the element again. */
+    private volatile String renderedAnki;
+    private volatile Rendering renderedHTML;
+    private volatile List<String> renderedHTMLLines;
+
+    /** Writes HTML representation of content element to given Appendable like render(), but reuses the output of
+     * previous calls if it does not depend on the RenderContext. */
+    public void write(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        if (this.usesRenderContext()) {
+            this.render(out, context, lineSeparator);
+        } else {
+            out.append(this.getRendered(context, lineSeparator));
+        }
+    }
+
+    /** Returns memoized output of render() using given line separator. An empty separator (as used by toAnki) and
+     * the last other separator are memoized. */
+    private String getRendered(RenderContext context, String lineSeparator) {
+        if (lineSeparator.isEmpty()) {
+            String anki = this.renderedAnki;
+            if (anki == null) {
+                anki = this.renderToString(context, lineSeparator);
+                this.renderedAnki = anki;
+            }
+            return anki;
+        }
+
+        Rendering html = this.renderedHTML;
+        if (html == null || !html.lineSeparator.equals(lineSeparator)) {
+            html = new Rendering(lineSeparator, this.renderToString(context, lineSeparator));
+            this.renderedHTML = html;
+        }
+        return html.output;
+    }
+
+    /** Output of render() together with the line separator used. */
+    private static class Rendering {
+        private final String lineSeparator;
+        private final String output;
+
+        private Rendering(String lineSeparator, String output) {
+            this.lineSeparator = lineSeparator;
+            this.output = output;
+        }
+    }
+
+    private String renderToString(RenderContext context, String lineSeparator) {
+        StringBuilder output = new StringBuilder();
+        try {
+            this.render(output, context, lineSeparator);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return output.toString();
+    }
+
+    /** Resets the memoized output, has to be called whenever the content of the element changes. */
+    protected void invalidateRendering() {
+        this.renderedAnki = null;
+        this.renderedHTML = null;
+        this.renderedHTMLLines = null;
+    }
+
+    /** Returns HTML representation of content element using given RenderContext (e.g. for creating IDs). */
+    public List<String> toHTML(RenderContext context) {
+        if (this.usesRenderContext()) {
+            return splitLines(this.renderToString(context, "\n"));
+        }
+
+        List<String> lines = this.renderedHTMLLines;
+        if (lines == null) {
+            lines = List.copyOf(splitLines(this.renderToString(context, "\n")));
+            this.renderedHTMLLines = lines;
+        }
+        return lines;
+    }
+
     /** Returns HTML representation of content element. */
-    public abstract List<String> toHTML();
+    public List<String> toHTML() {
+        return this.toHTML(new RenderContext(0));
+    }
 
     /** Returns HTML representation of content elements suitable for importing files to Anki. */
+    public String toAnki(RenderContext context) {
+        if (this.usesRenderContext()) {
+            return this.renderToString(context, "");
+        }
+        return this.getRendered(context, "");
+    }
     public String toAnki() {
-        StringBuilder output = new StringBuilder();
-        for (String line: this.toHTML()) {
-            output.append(line);
+        return this.toAnki(new RenderContext(0));
+    }
+
+    /** Helper method to split rendered output into its lines, each of them terminated by a line break. */
+    protected static List<String> splitLines(CharSequence rendered) {
+        List<String> output = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < rendered.length(); i++) {
+            if (rendered.charAt(i) == '\n') {
+                output.add(rendered.subSequence(lineStart, i).toString());
+                lineStart = i + 1;
+            }
         }
-        return output.toString();
+        return output;
     }
 
     /** Returns simple String representation of given ContentElement. */
@@ -42,53 +148,71 @@ public abstract class ContentElement {
         return res;
     }
 
-    /** Helper methods to parse inline Markdown formatting to HTML. */
-    private static String replaceInlineFormatting(String str, String mdTag, String regex, String htmlTag) {
+    /** Helper methods to parse inline Markdown formatting to HTML. The line is scanned once from left to right and
+     * every Markdown tag alternately opens and closes its HTML tag. A Markdown tag without a closing counterpart is
+     * kept as it is. Longer Markdown tags have to be listed in front of shorter ones starting with the same character. */
+    private static final String[][] FORMATS = {
+            {"**", "b"},
+            {"*", "em"},
+            {"~~", "s"},
+            {"``", "code"},
+            {"`", "code"},
+    };
+    private static int matchFormat(String line, int pos) {
+        boolean doubled = pos + 1 < line.length() && line.charAt(pos + 1) == line.charAt(pos);
+        return switch (line.charAt(pos)) {
+            case '*' -> doubled ? 0 : 1;
+            case '~' -> doubled ? 2 : -1;
+            case '`' -> doubled ? 3 : 4;
+            default -> -1;
+        };
+    }
+    protected static String parseInlineFormatting(String line) {
 
-        // add characters to account for formatting at beginning / end of line:
-        String strMod = "[" + str + "]";
+        StringBuilder output = null;
+        int[] openedAt = null;
+        int copiedUntil = 0;
 
-        // split line by using given regex pattern:
-        String[] splits = strMod.split(regex);
+        // replace Markdown tags with opening / closing HTML tags:
+        for (int i = 0; i < line.length(); i++) {
+            int format = matchFormat(line, i);
+            if (format < 0) continue;
 
-        // special case: no reformatting needed:
-        if (splits.length <= 2) return str;
+            if (output == null) {
+                output = new StringBuilder(line.length() + 32);
+                openedAt = new int[FORMATS.length];
+                Arrays.fill(openedAt, -1);
+            }
+            output.append(line, copiedUntil, i);
 
-        // merge splits using given htmlTags:
-        StringBuilder strB = new StringBuilder();
-        String htmlOpen = "<" + htmlTag + ">";
-        String htmlClose = "</" + htmlTag + ">";
-        for (int i = 0; i + 2 < splits.length; i+=2) {
-            strB.append(splits[i]);
-            strB.append(htmlOpen);
-            strB.append(splits[i+1]);
-            strB.append(htmlClose);
-        }
+            if (openedAt[format] < 0) {
+                openedAt[format] = output.length();
+                output.append('<').append(FORMATS[format][1]).append('>');
+            } else {
+                openedAt[format] = -1;
+                output.append("</").append(FORMATS[format][1]).append('>');
+            }
 
-        // append last string sequences:
-        if (splits.length % 2 == 0) {
-            strB.append(splits[splits.length - 2]);
-            strB.append(mdTag);
+            i += FORMATS[format][0].length() - 1;
+            copiedUntil = i + 1;
         }
-        strB.append(splits[splits.length - 1]);
 
-        return strB.substring(1, strB.length() - 1);
-    }
-    private static final String[][] FORMATS = {
-            {"**", "\\*\\*", "b"},
-            {"*", "\\*", "em"},
-            {"~~", "~~", "s"},
-            {"``", "``", "code"},
-            {"`", "`", "code"},
-    };
-    protected static String parseInlineFormatting(String line) {
+        // special case: no reformatting needed:
+        if (output == null) return line;
+        output.append(line, copiedUntil, line.length());
 
-        // replace inline formatting using all specified formats:
-        for (String[] curFormat : FORMATS) {
-            line = replaceInlineFormatting(line, curFormat[0], curFormat[1], curFormat[2]);
+        // restore unmatched Markdown tags, starting with the last one to keep remaining positions valid:
+        while (true) {
+            int last = -1;
+            for (int f = 0; f < FORMATS.length; f++) {
+                if (openedAt[f] >= 0 && (last < 0 || openedAt[f] > openedAt[last])) last = f;
+            }
+            if (last < 0) break;
+            output.replace(openedAt[last], openedAt[last] + FORMATS[last][1].length() + 2, FORMATS[last][0]);
+            openedAt[last] = -1;
         }
 
-        return line;
+        return output.toString();
     }
     protected static List<String> parseInlineFormatting(List<String> lines) {
         List<String> output = new ArrayList<>();
@@ -98,26 +222,62 @@ public abstract class ContentElement {
         return output;
     }
 
-    /** Helper method to parse inline Markdown links to HTML. */
-    private static final Pattern[] linkPatterns = {
-            Pattern.compile("\\[\\]\\(.*\\)"),
-            Pattern.compile("\\[.]\\]\\(.*\\)"),
-            Pattern.compile("\\[..*.\\]\\(.*\\)"),
-    };
+    /** Helper methods to parse inline Markdown links to HTML. Matching brackets and parentheses are looked up in one
+     * forward pass first, so every link is found without rescanning the line. This way neighbouring links are not
+     * merged, brackets inside the link text and parentheses inside the URL are supported. */
+    private static int[] findClosingPositions(String line) {
+        int[] closing = new int[line.length()];
+        int[] bracketStack = new int[line.length()];
+        int[] parenStack = new int[line.length()];
+        int brackets = 0;
+        int parens = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            closing[i] = -1;
+            switch (line.charAt(i)) {
+                case '[' -> bracketStack[brackets++] = i;
+                case ']' -> { if (brackets > 0) closing[bracketStack[--brackets]] = i; }
+                case '(' -> parenStack[parens++] = i;
+                case ')' -> { if (parens > 0) closing[parenStack[--parens]] = i; }
+            }
+        }
+
+        return closing;
+    }
     protected static String parseLinks(String line) {
-        for (Pattern pat : linkPatterns) {
-            Matcher matcher = pat.matcher(line);
-            while (matcher.find()) {
-                String linkString = line.substring(matcher.start(), matcher.end());
-                String linkText = linkString.substring(1, linkString.indexOf(']'));
-                String link = linkString.substring(linkString.indexOf(']') + 2, linkString.length() - 1);
-                line = line.substring(0, matcher.start())
-                        + "<a href=\"" + link + "\">" + linkText + "</a>"
-                        + line.substring(matcher.end());
-                matcher = pat.matcher(line);
+
+        // special case: no links in line:
+        int pos = line.indexOf('[');
+        if (pos < 0) return line;
+
+        int[] closing = findClosingPositions(line);
+        StringBuilder output = null;
+        int copiedUntil = 0;
+
+        // replace each link of the form [text](url):
+        while (pos >= 0) {
+            int textEnd = closing[pos];
+            boolean hasUrl = textEnd >= 0 && textEnd + 1 < line.length() && line.charAt(textEnd + 1) == '(';
+            int linkEnd = hasUrl ? closing[textEnd + 1] : -1;
+            if (linkEnd < 0) {
+                pos = line.indexOf('[', pos + 1);
+                continue;
             }
+
+            if (output == null) output = new StringBuilder(line.length() + 32);
+            output.append(line, copiedUntil, pos);
+            output.append("<a href=\"").append(line, textEnd + 2, linkEnd).append("\">");
+            output.append(line, pos + 1, textEnd).append("</a>");
+
+            copiedUntil = linkEnd + 1;
+            pos = line.indexOf('[', copiedUntil);
         }
-        return line;
+
+        // special case: no reformatting needed:
+        if (output == null) return line;
+        output.append(line, copiedUntil, line.length());
+
+        return output.toString();
     }
     protected static List<String> parseLinks(List<String> lines) {
         List<String> output = new ArrayList<>();
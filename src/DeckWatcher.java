@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/** Watches a directory tree and exports each Markdown file again as soon as it changes. Rapid saves of the same file
+ * are debounced. Rendered cards are kept in a MemoryCardCache, so only cards whose lines changed since the previous
+ * conversion are parsed and rendered again. */
+public class DeckWatcher {
+
+    private final CardGenerator generator;
+
+    private final String outputExtension;
+
+    private final long debounceMillis;
+
+    private final MemoryCardCache cache;
+
+    private final MarkdownLoader loader;
+
+    /** Creates DeckWatcher exporting files with given generator into files next to the Markdown files using given
+     * extension. A file is exported once no further change happened for given number of milliseconds. At most
+     * cacheBytes are used for keeping rendered cards in memory. */
+    public DeckWatcher(CardGenerator generator, String outputExtension, long debounceMillis, long cacheBytes) {
+        this.generator = generator;
+        this.outputExtension = outputExtension;
+        this.debounceMillis = debounceMillis;
+        this.cache = new MemoryCardCache(cacheBytes);
+        this.loader = new MarkdownLoader(1, cache);
+    }
+
+    /** Helper methods to find Markdown files and their output files. */
+    private static boolean isMarkdownFile(Path file) {
+        return file.getFileName().toString().endsWith(".md");
+    }
+    private Path getOutputFile(Path file) {
+        String fileName = file.getFileName().toString();
+        return file.resolveSibling(fileName.substring(0, fileName.length() - 3) + outputExtension);
+    }
+
+    /** Exports given Markdown file of given watched directory, replacing its previous output file. The output is
+     * written to a temporary file first, so the previous output stays intact if the conversion fails. */
+    private void export(Path directory, Path file) {
+        long start = System.nanoTime();
+        long hitsBefore = cache.getHits();
+        long missesBefore = cache.getMisses();
+        Path outputFile = getOutputFile(file);
+        Path tmpFile = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+
+        boolean exported = false;
+        try {
+            List<LearningCard> cards = loader.loadCardFile(file.toString());
+            Files.deleteIfExists(tmpFile);
+            exported = generator.exportCards(cards, tmpFile.toString(), CardGenerator.getDeckName(directory, file));
+            if (!exported) {
+                System.err.println("Could not export " + file + ".");
+                return;
+            }
+            Files.move(tmpFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            System.out.printf("Exported %s (%d cards, %d unchanged, %d rendered, %d ms)%n", file, cards.size(),
+                    cache.getHits() - hitsBefore, cache.getMisses() - missesBefore, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Could not export " + file + ": " + ex);
+        } finally {
+
+            // remove incomplete output, the previous output file stays intact:
+            if (!exported) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException ex) {
+                    // temporary file is replaced by the next export
+                }
+            }
+        }
+    }
+
+    /** Registers given directory of given watched directory and all of its subdirectories and exports all Markdown
+     * files found in them. */
+    private void registerAll(Path root, Path directory, WatchService watchService) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (isMarkdownFile(file)) export(root, file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /** Exports all Markdown files in given directory tree and keeps exporting them whenever they change, until the
+     * current thread is interrupted. */
+    public void watch(String directory) throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Path root = Paths.get(directory);
+            registerAll(root, root, watchService);
+            Map<Path, Long> pending = new HashMap<>();
+
+            while (!Thread.currentThread().isInterrupted()) {
+
+                // wait for next change (or until next pending file is due):
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long nextDue = pending.values().stream().mapToLong(Long::longValue).min().getAsLong();
+                    key = watchService.poll(Math.max(0, nextDue - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+
+                // remember changed files:
+                if (key != null) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+                        Path changed = dir.resolve((Path) event.context());
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                            registerAll(root, changed, watchService);
+                        } else if (isMarkdownFile(changed)) {
+                            pending.put(changed, System.currentTimeMillis() + debounceMillis);
+                        }
+                    }
+                    key.reset();
+                }
+
+                // export files which did not change during the debounce interval:
+                long now = System.currentTimeMillis();
+                Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Path, Long> entry = iterator.next();
+                    if (entry.getValue() <= now) {
+                        iterator.remove();
+                        if (Files.exists(entry.getKey())) export(root, entry.getKey());
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Watches a directory tree and exports all Markdown files whenever they change.
+     * Usage: java DeckWatcher directory [anki|html] */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java DeckWatcher directory [anki|html]");
+            System.exit(1);
+        }
+        boolean html = args.length > 1 && args[1].equals("html");
+        DeckWatcher watcher = new DeckWatcher(html ? new HTMLCardGenerator() : new AnkiCardGenerator(),
+                html ? ".html" : ".txt", 300, 256L << 20);
+        watcher.watch(args[0]);
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+/** On-disk CardCache storing rendered cards in a local directory. The cache is cleared whenever RENDERER_VERSION
+ * changes and least recently used entries are evicted as soon as the cache grows larger than the given size. Errors
+ * while reading or writing entries are treated like cache misses. */
+public class DiskCardCache extends CardCache {
+
+    private static final String VERSION_FILE = "VERSION";
+
+    /** Suffix of entries which are still being written. */
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    /** Opens cache in given directory (which is created if necessary) limited to given number of bytes. */
+    public DiskCardCache(String directory, long maxBytes) throws IOException {
+        super(maxBytes);
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+
+        // invalidate cache created by other renderer version:
+        Path versionFile = this.directory.resolve(VERSION_FILE);
+        String version = Integer.toString(RENDERER_VERSION);
+        if (!Files.exists(versionFile) || !Files.readString(versionFile).equals(version)) {
+            for (Path entry : listEntries()) {
+                Files.deleteIfExists(entry);
+            }
+            Files.writeString(versionFile, version);
+        }
+
+        // remove entries left over by interrupted writes:
+        try (Stream<Path> files = Files.list(this.directory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(TMP_SUFFIX)).forEach(DiskCardCache::deleteQuietly);
+        }
+
+        // determine current size of cache:
+        for (Path entry : listEntries()) {
+            currentBytes.addAndGet(Files.size(entry));
+        }
+    }
+
+    @Override
+    public String get(String key, String format, int cardIndex) {
+        Path entry = directory.resolve(key + "." + format);
+        try {
+            String content = Files.readString(entry);
+            int separator = content.indexOf('\n');
+            int entryIndex = Integer.parseInt(content.substring(0, separator));
+            if (entryIndex != ANY_INDEX && entryIndex != cardIndex) {
+                misses.incrementAndGet();
+                return null;
+            }
+
+            // mark entry as recently used:
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return content.substring(separator + 1);
+        } catch (IOException | RuntimeException ex) {
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, String format, int cardIndex, boolean dependsOnIndex, String output) {
+        String content = (dependsOnIndex ? cardIndex : ANY_INDEX) + "\n" + output;
+        Path entry = directory.resolve(key + "." + format);
+        Path tmpFile = null;
+        try {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+            // write entry to temporary file first, so concurrent readers never see a partially written entry:
+            tmpFile = Files.createTempFile(directory, key, TMP_SUFFIX);
+            Files.write(tmpFile, bytes);
+            long oldSize = Files.exists(entry) ? Files.size(entry) : 0;
+            Files.move(tmpFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmpFile = null;
+            if (currentBytes.addAndGet(bytes.length - oldSize) > maxBytes) evict();
+        } catch (IOException | UncheckedIOException ex) {
+            // entries which can not be written are simply not cached
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    /** Deletes least recently used entries until the cache uses at most 90 percent of its maximum size. */
+    private synchronized void evict() throws IOException {
+        if (currentBytes.get() <= maxBytes) return;
+
+        List<Path> entries = listEntries();
+        entries.sort(Comparator.comparing(DiskCardCache::lastModified));
+        for (Path entry : entries) {
+            if (currentBytes.get() <= maxBytes * 0.9) break;
+            long size = Files.size(entry);
+            if (Files.deleteIfExists(entry)) {
+                currentBytes.addAndGet(-size);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /** Helper methods to list all entries of the cache directory. */
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> output = new ArrayList<>();
+            files.filter(p -> !p.getFileName().toString().equals(VERSION_FILE)
+                    && !p.getFileName().toString().endsWith(TMP_SUFFIX)).forEach(output::add);
+            return output;
+        }
+    }
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // leftover temporary files are ignored by the cache
+        }
+    }
+    private static FileTime lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
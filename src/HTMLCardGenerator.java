@@ -1,50 +1,103 @@
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
-import java.util.ArrayList;
-import java.util.List;
 
 
 /** Represents object to export LearningCards to HTML file. */
 public class HTMLCardGenerator extends CardGenerator {
 
-    /** Creates HTML file containing given list of LearningCards. */
-    @Override
-    public void exportCards(List<LearningCard> cards, String output_file) {
+    /** CardSink writing the same files as HTMLCardGenerator for MultiTargetCardGenerator. */
+    public static final CardSink SINK = new CardSink() {
+        @Override
+        public String getExtension() {
+            return ".html";
+        }
 
-        // create output file:
-        Path filePath = Paths.get(output_file);
-        try {
-            Files.createFile(filePath);
-        } catch (FileAlreadyExistsException ex) {
-            System.err.println("A file with the given name already exists.");
-            return;
-        } catch (IOException ex) {
-            System.err.println("The given file name is invalid.");
-            return;
+        @Override
+        public void writeHeader(BufferedWriter writer) throws IOException {
+            HTMLCardGenerator.writeHeader(writer);
+        }
+
+        @Override
+        public void writeCard(Appendable out, RenderedCard card) throws IOException {
+            String lineSeparator = System.lineSeparator();
+            card.writeFront(out, lineSeparator);
+            card.writeBack(out, lineSeparator);
+            out.append("<br>").append(lineSeparator);
         }
 
-        // generate HTML content:
-        List<String> output = new ArrayList<>();
-        output.add("<html lang=\"de\">");
-        output.add("<head>");
-        output.add("  <meta http-equiv=\"content-type\" content=\"text/html\" charset=\"utf-8\">");
-        output.add("</head>");
-        output.add("");
-
-        output.add("<body>");
-        for (LearningCard c : cards) {
-            output.addAll(c.getContentAsHTML());
-            output.add("<br>");
+        @Override
+        public void writeFooter(BufferedWriter writer) throws IOException {
+            HTMLCardGenerator.writeFooter(writer);
         }
-        output.add("</body>");
-        output.add("</html>");
+    };
+
+    /** Creates HTMLCardGenerator rendering all cards sequentially. */
+    public HTMLCardGenerator() {
+        super();
+    }
+
+    /** Creates HTMLCardGenerator rendering chunks of cards on given number of threads. */
+    public HTMLCardGenerator(int parallelism) {
+        super(parallelism, DEFAULT_CHUNK_SIZE, 2 * parallelism);
+    }
+
+    /** Creates HTMLCardGenerator rendering chunks of given size on given number of threads, keeping at most
+     * maxChunksInFlight rendered chunks in memory. */
+    public HTMLCardGenerator(int parallelism, int chunkSize, int maxChunksInFlight) {
+        super(parallelism, chunkSize, maxChunksInFlight);
+    }
 
-        // write content to file:
-        try {
-            Files.write(filePath, output, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    /** Creates HTMLCardGenerator like above, which reports the metrics of each exported file to given PipelineListener. */
+    public HTMLCardGenerator(int parallelism, int chunkSize, int maxChunksInFlight, PipelineListener listener) {
+        super(parallelism, chunkSize, maxChunksInFlight, listener);
+    }
+
+    /** Creates HTML file containing given LearningCards. The name of the deck is not used. */
+    @Override
+    public boolean exportCards(Iterable<LearningCard> cards, String output_file, String deckName) {
+
+        // create output file:
+        BufferedWriter writer = createOutputFile(output_file);
+        if (writer == null) return false;
+
+        try (writer) {
+            String lineSeparator = System.lineSeparator();
+
+            // generate HTML content:
+            writeHeader(writer);
+            writeCards(cards, writer, (out, card, cardIndex) -> {
+                card.renderHTML(out, cardIndex, lineSeparator);
+                out.append("<br>").append(lineSeparator);
+            });
+            writeFooter(writer);
+            return true;
         } catch (IOException ex) {
             System.err.println("There was an error creating the file.");
+            return false;
         }
     }
+
+    /** Writes beginning of the HTML page up to the opening body tag. */
+    private static void writeHeader(BufferedWriter writer) throws IOException {
+        writer.write("<html lang=\"de\">");
+        writer.newLine();
+        writer.write("<head>");
+        writer.newLine();
+        writer.write("  <meta http-equiv=\"content-type\" content=\"text/html\" charset=\"utf-8\">");
+        writer.newLine();
+        writer.write("</head>");
+        writer.newLine();
+        writer.newLine();
+
+        writer.write("<body>");
+        writer.newLine();
+    }
+
+    /** Writes end of the HTML page. */
+    private static void writeFooter(BufferedWriter writer) throws IOException {
+        writer.write("</body>");
+        writer.newLine();
+        writer.write("</html>");
+        writer.newLine();
+    }
 }
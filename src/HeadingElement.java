@@ -1,4 +1,4 @@
-import java.util.List;
+import java.io.IOException;
 
 
 /** ContentElement representing heading. */
@@ -20,19 +20,32 @@ public class HeadingElement extends ContentElement {
         return this.tag;
     }
 
+    public int getLevel() {
+        return this.level;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
     @Override
     public void parseInlineFormatting() {
         text = parseInlineFormatting(text);
+        invalidateRendering();
     }
 
     @Override
     public void parseLinks() {
         text = parseLinks(text);
+        invalidateRendering();
     }
 
     @Override
-    public List<String> toHTML() {
-        return List.of(String.format("<h%d>%s</h%d>", level, text, level));
+    public void render(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        String levelString = Integer.toString(level);
+        out.append("<h").append(levelString).append('>');
+        out.append(text);
+        out.append("</h").append(levelString).append('>').append(lineSeparator);
     }
 
     @Override
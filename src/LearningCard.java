@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,6 +9,11 @@ public abstract class LearningCard {
 
     protected HeadingElement heading;
 
+    /** Returns the level 1 heading the card starts with. */
+    public HeadingElement getHeading() {
+        return this.heading;
+    }
+
     /** Returns the front site of the card. */
     public abstract List<String> getFrontContent();
 
@@ -54,32 +61,77 @@ public abstract class LearningCard {
         return res;
     }
 
-    /** Returns HTML representation of card. */
-    public List<String> getContentAsHTML() {
-        List<String> output = new ArrayList<>();
-        for (ContentElement cElem : getFrontContentElements()) {
-            output.addAll(cElem.toHTML());
-        }
-        for (ContentElement cElem : getBackContentElements()) {
-            output.addAll(cElem.toHTML());
+    /** Writes HTML representation of card directly to given Appendable, each line followed by given line separator.
+     * The given index of the card is used to create IDs, which are unique among all cards rendered with different
+     * indices. */
+    public void renderHTML(Appendable out, int cardIndex, String lineSeparator) throws IOException {
+        this.renderHTML(out, new RenderContext(cardIndex), lineSeparator);
+    }
+    public void renderHTML(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        this.renderFront(out, context, lineSeparator);
+        this.renderBack(out, context, lineSeparator);
+    }
+
+    /** Writes HTML representation of front or back side of card to given Appendable. Both sides have to be rendered
+     * with the same RenderContext, front side first, to get the same IDs as renderHTML and renderAnki. */
+    public void renderFront(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        renderElements(getFrontContentElements(), out, context, lineSeparator);
+    }
+    public void renderBack(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        renderElements(getBackContentElements(), out, context, lineSeparator);
+    }
+
+    /** Writes anki representation of card (front and back side as quoted fields) directly to given Appendable. */
+    public void renderAnki(Appendable out, int cardIndex) throws IOException {
+        this.renderAnki(out, new RenderContext(cardIndex));
+    }
+    public void renderAnki(Appendable out, RenderContext context) throws IOException {
+        Appendable escaped = new QuoteEscapingAppendable(out);
+        out.append('"');
+        this.renderFront(escaped, context, "");
+        out.append("\";\"");
+        this.renderBack(escaped, context, "");
+        out.append('"');
+    }
+
+    /** Writes given elements by index, so that iterating the cached views of a card allocates nothing. Elements
+     * reuse their memoized output where possible. */
+    private static void renderElements(List<ContentElement> cElements, Appendable out, RenderContext context,
+                                       String lineSeparator) throws IOException {
+        for (int i = 0, n = cElements.size(); i < n; i++) {
+            cElements.get(i).write(out, context, lineSeparator);
         }
-        return output;
     }
 
-    /** Returns anki representation of card. */
-    public String getContentAsAnki() {
+    /** Returns HTML representation of card. The given index of the card is used to create IDs, which are unique
+     * among all cards rendered with different indices. */
+    public List<String> getContentAsHTML(int cardIndex) {
         StringBuilder output = new StringBuilder();
-        output.append("\"");
-        for (ContentElement cElem : getFrontContentElements()) {
-            output.append(cElem.toAnki().replaceAll("\"", "\"\""));
+        try {
+            this.renderHTML(output, cardIndex, "\n");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-        output.append("\";\"");
-        for (ContentElement cElem : getBackContentElements()) {
-            output.append(cElem.toAnki().replaceAll("\"", "\"\""));
+        return ContentElement.splitLines(output);
+    }
+    public List<String> getContentAsHTML() {
+        return this.getContentAsHTML(0);
+    }
+
+    /** Returns anki representation of card. The given index of the card is used to create IDs, which are unique
+     * among all cards rendered with different indices. */
+    public String getContentAsAnki(int cardIndex) {
+        StringBuilder output = new StringBuilder();
+        try {
+            this.renderAnki(output, cardIndex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-        output.append("\"");
         return output.toString();
     }
+    public String getContentAsAnki() {
+        return this.getContentAsAnki(0);
+    }
 
     /** Writes the content to the console. */
     public void printToConsole() {
@@ -90,4 +142,7 @@ public abstract class LearningCard {
 
     /** Returns name of corresponding LearningCard. */
     protected abstract String getName();
+
+    /** Returns type of the card, i.e. the tag at the end of its level 1 heading. */
+    protected abstract Tag getTag();
 }
@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class ListElement extends ContentElement {
@@ -8,14 +10,31 @@ public abstract class ListElement extends ContentElement {
         this.points = points;
     }
 
+    /** Returns unmodifiable view of the points, so the memoized output can only be changed by the methods of this
+     * element, which invalidate it. */
+    public List<String> getPoints() {
+        return Collections.unmodifiableList(this.points);
+    }
+
     @Override
     public void parseInlineFormatting() {
         points = parseInlineFormatting(points);
+        invalidateRendering();
     }
 
     @Override
     public void parseLinks() {
         points = parseLinks(points);
+        invalidateRendering();
+    }
+
+    /** Writes list items using given opening and closing tag of the list. */
+    protected void render(Appendable out, String openTag, String closeTag, String lineSeparator) throws IOException {
+        out.append(openTag).append(lineSeparator);
+        for (String point : points) {
+            out.append("<li>").append(point).append("</li>").append(lineSeparator);
+        }
+        out.append(closeTag).append(lineSeparator);
     }
 
     @Override
@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+
+/** Markdown file mapped into memory. The beginnings of all cards (lines starting with '# ') are found by scanning the
+ * bytes of the file, while the content of a card is only decoded when it is read. This way no String of the whole
+ * file has to be kept in memory and single cards can be decoded and parsed independently of each other. */
+public class MappedDeck {
+
+    /** Maximum size of a single mapped segment of the file. */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /** Minimum size of a byte range scanned for card beginnings by a single thread. */
+    private static final long MIN_RANGE_SIZE = 1L << 20;
+
+    private final MappedByteBuffer[] segments;
+
+    private final long size;
+
+    private final long[] cardStarts;
+
+    /** Maps given file into memory and finds the beginnings of all cards. */
+    public MappedDeck(String file_path) throws IOException {
+        this(file_path, 1);
+    }
+
+    /** Maps given file into memory and finds the beginnings of all cards using given number of threads. */
+    public MappedDeck(String file_path, int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file_path), StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+        this.cardStarts = parallelism > 1 ? findCardStartsParallel(parallelism) : findCardStarts(0, size);
+    }
+
+    /** Splits the file into byte ranges, finds the beginnings of the cards of each range on a separate thread and
+     * concatenates the results. Each card belongs to the range containing its first byte, while the bytes in front of
+     * it are read across the borders of the ranges, so the result equals the one of a sequential search. */
+    private long[] findCardStartsParallel(int parallelism) {
+        int numRanges = (int) Math.max(1, Math.min(4L * parallelism, size / MIN_RANGE_SIZE));
+        long rangeSize = (size + numRanges - 1) / numRanges;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<long[]> ranges = pool.submit(() -> IntStream.range(0, numRanges).parallel()
+                    .mapToObj(i -> findCardStarts(i * rangeSize, Math.min(size, (i + 1) * rangeSize)))
+                    .collect(Collectors.toList())
+            ).join();
+
+            // stitch results of all ranges together:
+            long[] output = new long[ranges.stream().mapToInt(r -> r.length).sum()];
+            int numCards = 0;
+            for (long[] range : ranges) {
+                System.arraycopy(range, 0, output, numCards, range.length);
+                numCards += range.length;
+            }
+            return output;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Returns byte at given position of the file (or 0 if the position is outside the file). */
+    private byte byteAt(long pos) {
+        if (pos < 0 || pos >= size) return 0;
+        return segments[(int) (pos / SEGMENT_SIZE)].get((int) (pos % SEGMENT_SIZE));
+    }
+
+    /** Returns positions of all cards starting in the given range of the file. A card starts at the beginning of the
+     * file or after each line break, if it is followed by '# '. */
+    long[] findCardStarts(long from, long to) {
+        long[] output = new long[16];
+        int numCards = 0;
+
+        if (from == 0 && to > 0 && byteAt(0) == '#' && byteAt(1) == ' ') output[numCards++] = 0;
+
+        // find line breaks followed by '# ', segment by segment:
+        long pos = Math.max(from - 1, 0);
+        while (pos < to - 1) {
+            int segment = (int) (pos / SEGMENT_SIZE);
+            long segmentStart = segment * SEGMENT_SIZE;
+            MappedByteBuffer buffer = segments[segment];
+            int limit = (int) Math.min(buffer.limit(), to - 1 - segmentStart);
+
+            for (int i = (int) (pos - segmentStart); i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b != '\n' && b != '\r') continue;
+                long next = segmentStart + i + 1;
+                if (byteAt(next) == '#' && byteAt(next + 1) == ' ') {
+                    if (numCards == output.length) output = Arrays.copyOf(output, 2 * numCards);
+                    output[numCards++] = next;
+                }
+            }
+            pos = segmentStart + limit;
+        }
+
+        return Arrays.copyOf(output, numCards);
+    }
+
+    /** Returns number of cards of the file. */
+    public int getNumCards() {
+        return cardStarts.length;
+    }
+
+    /** Returns bytes of given range of the file. Ranges within one segment are returned without copying. */
+    private ByteBuffer getRange(long start, long end) {
+        int segment = (int) (start / SEGMENT_SIZE);
+        if (segment == (end - 1) / SEGMENT_SIZE) {
+            return segments[segment].slice((int) (start % SEGMENT_SIZE), (int) (end - start));
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = byteAt(start + i);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /** Decodes lines of card with given index into RawCard (with Tag 'NONE'). Line breaks are handled like
+     * Files.readAllLines does. */
+    public RawCard readCard(int index) {
+        long start = cardStarts[index];
+        long end = index + 1 < cardStarts.length ? cardStarts[index + 1] : size;
+
+        CharBuffer chars;
+        try {
+            chars = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(getRange(start, end));
+        } catch (CharacterCodingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        // split into lines:
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c == '\n' || c == '\r') {
+                lines.add(chars.subSequence(lineStart, i).toString());
+                if (c == '\r' && i + 1 < chars.length() && chars.charAt(i + 1) == '\n') i++;
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < chars.length()) lines.add(chars.subSequence(lineStart, chars.length()).toString());
+
+        return new RawCard(lines, Tag.NONE);
+    }
+}
@@ -1,10 +1,25 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /** Represents all possible valid card tags. */
@@ -44,20 +59,45 @@ class RawCard {
 }
 
 
-/** Contains the specified card tag and the content of a card using a list of ContentElement objects. */
-class ContentCard {
-    public HeadingElement heading;
-    public List<ContentElement> content;
-    public Tag tag;
+/** Reads RawCard objects (with Tag 'NONE') one after another from given BufferedReader. A card is completed as soon as
+ * the level 1 heading of the next card or the end of the file is reached. Lines in front of the first card are
+ * skipped, just like in MarkdownLoader.splitIntoCards. */
+class RawCardReader implements Iterator<RawCard> {
+    private final BufferedReader reader;
+    private String nextHeading;
 
-    public ContentCard(HeadingElement heading, Tag tag) {
-        this.heading = heading;
-        this.content = new ArrayList<>();
-        this.tag = tag;
+    public RawCardReader(BufferedReader reader) {
+        this.reader = reader;
+        this.nextHeading = readUntilHeading(null);
     }
 
-    public void appendContent(ContentElement cElement) {
-        this.content.add(cElement);
+    /** Reads lines into given card (if not null) until next level 1 heading is reached and returns that heading (or
+     * null if end of file is reached). */
+    private String readUntilHeading(RawCard card) {
+        try {
+            String curLine;
+            while ((curLine = reader.readLine()) != null) {
+                if (curLine.startsWith("# ")) return curLine;
+                if (card != null) card.appendLine(curLine);
+            }
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextHeading != null;
+    }
+
+    @Override
+    public RawCard next() {
+        if (nextHeading == null) throw new NoSuchElementException();
+        RawCard card = new RawCard(new ArrayList<>(), Tag.NONE);
+        card.appendLine(nextHeading);
+        nextHeading = readUntilHeading(card);
+        return card;
     }
 }
 
@@ -65,9 +105,48 @@ class ContentCard {
 
 public class MarkdownLoader {
 
+    /** Number of threads used for parsing cards. A value of 1 parses all cards sequentially stage by stage. */
+    private final int parallelism;
+
+    /** Cache of rendered cards (or null if no cache is used). */
+    private final CardCache cache;
+
+    /** Listener receiving metrics of loaded files (or null). */
+    private final PipelineListener listener;
+
+    /** Creates MarkdownLoader parsing all cards sequentially. */
+    public MarkdownLoader() {
+        this(1);
+    }
+
+    /** Creates MarkdownLoader parsing cards on a fork-join pool with given number of threads. */
+    public MarkdownLoader(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /** Creates MarkdownLoader using given CardCache. Cards are only parsed when they are not found in the cache, i.e.
+     * when they are rendered for the first time. */
+    public MarkdownLoader(int parallelism, CardCache cache) {
+        this(parallelism, cache, null);
+    }
+
+    /** Creates MarkdownLoader reporting the metrics of each stage of loadCardFile to given PipelineListener. */
+    public MarkdownLoader(int parallelism, CardCache cache, PipelineListener listener) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism has to be at least 1, but is " + parallelism + ".");
+        this.parallelism = parallelism;
+        this.cache = cache;
+        this.listener = listener;
+    }
+
     /** Loads content of given file into list of strings and returns it. */
-    private static List<String> importFile(String file_path) throws IOException {
-        return Files.readAllLines(Paths.get(file_path));
+    private static List<String> importFile(BufferedReader reader) throws IOException {
+        List<String> output = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            output.add(line);
+        }
+        return output;
     }
 
     /** Splits the given list of Strings into cards (using RawCard objects with Tag 'NONE').
@@ -99,39 +178,108 @@ public class MarkdownLoader {
         return output;
     }
 
-    /** Reads and matches tag of heading of each card. */
-    private static List<RawCard> readCardType(List<RawCard> cards) {
+    /** Card tags at the end of the level 1 heading of a card. */
+    private static final String[] mainTagStrings = {" {QUESTION}", " {CHOICE}"};
+    private static final Tag[] mainTags =          {Tag.QUESTION , Tag.CHOICE };
+
+    /** Matches card tag at the end of given level 1 heading (without trailing whitespace). */
+    private static Tag getCardTag(String line) {
+        for (int i = 0; i < mainTags.length; i++) {
+            if (line.endsWith(mainTagStrings[i])) return mainTags[i];
+        }
+        return Tag.NONE;
+    }
+
+    /** Removes given card tag from the end of given level 1 heading. */
+    private static String removeCardTag(String line, Tag tag) {
+        for (int i = 0; i < mainTags.length; i++) {
+            if (mainTags[i] == tag) return line.substring(0, line.length() - mainTagStrings[i].length());
+        }
+        return line;
+    }
 
-        final String[] mainTagStrings = {" {QUESTION}", " {CHOICE}"};
-        final Tag[] mainTags =          {Tag.QUESTION , Tag.CHOICE };
+    /** Returns card tag of given level 1 heading exactly like parsing the whole card does. */
+    static Tag parseCardTag(String line) {
+        return getCardTag(stripTrailingWhitespace(line));
+    }
 
-        // find corresponding tag for each given card:
-        for (RawCard c : cards) {
-            String heading = c.content.get(0).replaceAll("\\s+$", "");
+    /** Parses level 1 heading of a card into its HeadingElement exactly like parsing the whole card does, e.g. for
+     * identifying a card without parsing its content. */
+    static HeadingElement parseCardHeading(String line) {
+        line = stripTrailingWhitespace(line);
+        HeadingElement heading = parseHeading(removeCardTag(line, getCardTag(line)));
+        heading.parseInlineFormatting();
+        heading.parseLinks();
+        return heading;
+    }
 
-            // match main tags:
-            for (int i = 0; i < mainTags.length; i++) {
-                if (heading.endsWith(mainTagStrings[i])) {
-                    c.tag = mainTags[i];
-                    heading = heading.substring(0, heading.length() - mainTagStrings[i].length());
-                    break;
-                }
-            }
+    /** Returns whether given line contains a line break not handled by BufferedReader.readLine. The regular
+     * expressions formerly used for parsing headings treat these characters specially, so such lines are still parsed
+     * using them. */
+    private static boolean hasUnicodeLineBreak(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\u0085' || c == '\u2028' || c == '\u2029') return true;
+        }
+        return false;
+    }
+
+    /** Removes trailing whitespace (as matched by the regular expression '\s') from given line. */
+    private static String stripTrailingWhitespace(String line) {
+        if (hasUnicodeLineBreak(line)) return line.replaceAll("\\s+$", "");
 
-            c.content.set(0, heading);
+        int end = line.length();
+        while (end > 0) {
+            char c = line.charAt(end - 1);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') break;
+            end--;
         }
+        return line.substring(0, end);
+    }
+
+    /** Matches tag of corresponding ContentElement of given String. The leading characters of the line are only
+     * looked at once, so no regular expressions or intermediate objects are needed. */
+    static ElementTag getElement(String line) {
+        ElementTag tag = classifyLine(line);
 
-        return cards;
+        // the regular expressions formerly used for headings and lists ('.*') do not match Unicode line breaks:
+        if ((tag == ElementTag.HEADING || tag == ElementTag.BULLET_LIST || tag == ElementTag.ORDERED_LIST)
+                && hasUnicodeLineBreak(line)) return ElementTag.TEXT_BLOCK;
+        return tag;
     }
+    private static ElementTag classifyLine(String line) {
+        int length = line.length();
+        if (length == 0) return ElementTag.EMPTY_LINE;
+
+        switch (line.charAt(0)) {
+            // heading: one or more '#' followed by a whitespace
+            case '#' -> {
+                int i = 1;
+                while (i < length && line.charAt(i) == '#') i++;
+                if (i < length && line.charAt(i) == ' ') return ElementTag.HEADING;
+            }
+
+            // bullet list: '-', '*' or '+' followed by a whitespace
+            case '-', '*', '+' -> {
+                if (length > 1 && line.charAt(1) == ' ') return ElementTag.BULLET_LIST;
+            }
+
+            // answers of multiple choice cards: '[ ] ' or '[x] '
+            case '[' -> {
+                if (length > 3 && line.charAt(2) == ']' && line.charAt(3) == ' ') {
+                    if (line.charAt(1) == ' ') return ElementTag.WRONG_ANSWER;
+                    if (line.charAt(1) == 'x') return ElementTag.RIGHT_ANSWER;
+                }
+            }
+
+            // ordered list: (optional) digits from 1 to 9 followed by '. '
+            default -> {
+                int i = 0;
+                while (i < length && line.charAt(i) >= '1' && line.charAt(i) <= '9') i++;
+                if (i + 1 < length && line.charAt(i) == '.' && line.charAt(i + 1) == ' ') return ElementTag.ORDERED_LIST;
+            }
+        }
 
-    /** Matches tag of corresponding ContentElement of given String. */
-    private static ElementTag getElement (String line) {
-        if (line.matches("^#+ .*")) return ElementTag.HEADING;
-        if (line.matches("^[-\\*+] .*")) return ElementTag.BULLET_LIST;
-        if (line.matches("^[1-9]*\\. .*")) return ElementTag.ORDERED_LIST;
-        if (line.startsWith("[ ] ")) return ElementTag.WRONG_ANSWER;
-        if (line.startsWith("[x] ")) return ElementTag.RIGHT_ANSWER;
-        if (line.equals("")) return ElementTag.EMPTY_LINE;
         return ElementTag.TEXT_BLOCK;
     }
 
@@ -143,157 +291,389 @@ public class MarkdownLoader {
         // get level of given heading:
         int level = line.indexOf(' ');
 
-        // read and remove tag of given heading:
+        // read and remove tag of given heading, i.e. everything from the first '{' if the heading ends with '}':
         line = line.substring(level + 1).trim();
-        Matcher tagMatcher = tagPattern.matcher(line);
         String tag = "";
-        if (tagMatcher.find()) {
-            tag = line.substring(tagMatcher.start() + 1, tagMatcher.end() - 1);
-            line = line.replaceAll(tagRegex, "");
+        if (hasUnicodeLineBreak(line)) {
+            Matcher tagMatcher = tagPattern.matcher(line);
+            if (tagMatcher.find()) {
+                tag = line.substring(tagMatcher.start() + 1, tagMatcher.end() - 1);
+                line = line.replaceAll(tagRegex, "");
+            }
+        } else if (line.endsWith("}")) {
+            int tagStart = line.indexOf('{');
+            if (tagStart >= 0) {
+                tag = line.substring(tagStart + 1, line.length() - 1);
+                line = line.substring(0, tagStart);
+            }
         }
 
         return new HeadingElement(level, tag, line);
     }
 
-    /** Parses given list of RawCards into ContentCards by splitting its list of Strings into a list of
-     * ContentElements. */
-    private static List<ContentCard> parseContentElements(List<RawCard> cards) {
-
-        List<ContentCard> output = new ArrayList<>();
-        ContentCard curContentCard;
-
-        // parse RawCards into ContentCards:
-        for (RawCard c : cards) {
-            int lineNo = 0;
-
-            // add first heading:
-            HeadingElement heading = parseHeading(c.content.get(lineNo));
-            curContentCard = new ContentCard(heading, c.tag);
-            lineNo++;
+    /** Parses lines of Markdown into LearningCards in a single pass. Each line is classified once and appended to
+     * the block of the current ContentElement. As soon as a block is complete, its element is created and its inline
+     * formatting and links are parsed. As soon as the next card starts, the current LearningCard is created, so no
+     * intermediate representation of the whole card or deck is needed. Lines in front of the first card are
+     * skipped. */
+    private static class CardParser {
+
+        /** Heading, tag and elements of the current card (heading is null while no card is read). */
+        private HeadingElement heading;
+        private Tag tag;
+        private List<ContentElement> content;
+
+        /** Lines of the current list or text block and their ElementTag (null while no block is read). */
+        private ElementTag blockTag;
+        private List<String> block;
+
+        /** Number of lines read and time spent on inline formatting and links (only measured if timed is set). */
+        private final boolean timed;
+        private long numLines = 0;
+        private long inlineFormattingNanos = 0;
+        private long linksNanos = 0;
+
+        CardParser() {
+            this(false);
+        }
 
-            // parse remaining content elements:
-            while (lineNo < c.content.size()) {
+        CardParser(boolean timed) {
+            this.timed = timed;
+        }
 
-                String curLine = c.content.get(lineNo);
-                ElementTag elemCurLine = getElement(curLine);
+        /** Reads next LearningCard from given reader, returns null if the end of the file is reached. */
+        LearningCard readCard(BufferedReader reader) throws IOException {
+            String curLine;
+            while ((curLine = reader.readLine()) != null) {
+                LearningCard card = this.readLine(curLine);
+                if (card != null) return card;
+            }
+            return this.finish();
+        }
 
-                // match element of current line:
-                switch(elemCurLine) {
-                    case HEADING -> {
-                        curContentCard.appendContent(parseHeading(c.content.get(lineNo)));
-                        lineNo++;
-                    }
+        /** Reads given line, returns the completed previous card if the line starts a new card and null otherwise. */
+        LearningCard readLine(String line) {
+            numLines++;
 
-                    case BULLET_LIST -> {
-                        List<String> bulletPoints = new ArrayList<>();
-                        while (lineNo < c.content.size() && getElement(c.content.get(lineNo)) == ElementTag.BULLET_LIST) {
-                            bulletPoints.add(c.content.get(lineNo).substring(2));
-                            lineNo++;
-                        }
-                        BulletListElement bulletList = new BulletListElement(bulletPoints);
-                        curContentCard.appendContent(bulletList);
-                    }
+            // special case: reach beginning of new card
+            if (line.startsWith("# ")) {
+                LearningCard completed = this.finish();
+                this.startCard(line);
+                return completed;
+            }
+            if (heading == null) return null;
+
+            // complete current block if line belongs to different element:
+            ElementTag lineTag = getElement(line);
+            if (lineTag != blockTag) this.finishBlock();
+
+            // match element of current line:
+            switch (lineTag) {
+                case HEADING -> this.appendElement(parseHeading(line));
+                case BULLET_LIST -> this.appendToBlock(lineTag, line.substring(2));
+                case ORDERED_LIST -> this.appendToBlock(lineTag, line.substring(line.indexOf(' ')));
+                case WRONG_ANSWER -> this.appendElement(new ChoiceElement(false, line.substring(4)));
+                case RIGHT_ANSWER -> this.appendElement(new ChoiceElement(true, line.substring(4)));
+                case TEXT_BLOCK -> this.appendToBlock(lineTag, line);
+                case EMPTY_LINE -> { }
+            }
+            return null;
+        }
 
-                    case ORDERED_LIST -> {
-                        List<String> items = new ArrayList<>();
-                        while (lineNo < c.content.size() && getElement(c.content.get(lineNo)) == ElementTag.ORDERED_LIST) {
-                            String line = c.content.get(lineNo);
-                            items.add(line.substring(line.indexOf(' ')));
-                            lineNo++;
-                        }
-                        OrderedListElement orderedList = new OrderedListElement(items);
-                        curContentCard.appendContent(orderedList);
-                    }
+        /** Completes the current card and returns it, returns null if no card is read. */
+        LearningCard finish() {
+            if (heading == null) return null;
+            this.finishBlock();
 
-                    case WRONG_ANSWER -> {
-                        curContentCard.appendContent(new ChoiceElement(false, curLine.substring(4)));
-                        lineNo++;
-                    }
-
-                    case RIGHT_ANSWER -> {
-                        curContentCard.appendContent(new ChoiceElement(true, curLine.substring(4)));
-                        lineNo++;
-                    }
+            LearningCard card = switch (tag) {
+                case NONE -> new SimpleCard(heading, content);
+                case QUESTION -> new QuestionCard(heading, content);
+                case CHOICE -> new ChoiceCard(heading, content);
+            };
+            heading = null;
+            content = null;
+            return card;
+        }
 
-                    case EMPTY_LINE -> {
-                        lineNo++;
-                    }
+        /** Reads card tag and heading of new card from given level 1 heading. */
+        private void startCard(String line) {
+            line = stripTrailingWhitespace(line);
+            tag = getCardTag(line);
+            heading = parseHeading(removeCardTag(line, tag));
+            this.parseInline(heading);
+            content = new ArrayList<>();
+        }
 
-                    case TEXT_BLOCK -> {
-                        List<String> strList = new ArrayList<>();
-                        while (lineNo < c.content.size() && getElement(c.content.get(lineNo)) == ElementTag.TEXT_BLOCK) {
-                            strList.add(c.content.get(lineNo));
-                            lineNo++;
-                        }
-                        TextBlockElement textBlock = new TextBlockElement(strList);
-                        curContentCard.appendContent(textBlock);
-                    }
-                }
+        private void appendToBlock(ElementTag lineTag, String line) {
+            if (block == null) {
+                blockTag = lineTag;
+                block = new ArrayList<>();
             }
+            block.add(line);
+        }
 
-            // add created card to list of cards:
-            output.add(curContentCard);
+        /** Creates element of current block (if any). */
+        private void finishBlock() {
+            if (block == null) return;
+            switch (blockTag) {
+                case BULLET_LIST -> this.appendElement(new BulletListElement(block));
+                case ORDERED_LIST -> this.appendElement(new OrderedListElement(block));
+                default -> this.appendElement(new TextBlockElement(block));
+            }
+            blockTag = null;
+            block = null;
         }
 
-        return output;
-    }
+        /** Parses inline formatting and links of given element and appends it to the current card. */
+        private void appendElement(ContentElement cElem) {
+            this.parseInline(cElem);
+            content.add(cElem);
+        }
 
-    /** Parses inline formatting (bold, italics, strikethrough effect, inline code) from Markdown formatting to HTML
-     * using corresponding method of ContentElement objects. */
-    private static void parseInlineFormatting(List<ContentCard> cards) {
-        for (ContentCard cCard : cards) {
-            cCard.heading.parseInlineFormatting();
-            for (ContentElement cElem : cCard.content) {
+        private void parseInline(ContentElement cElem) {
+            if (!timed) {
                 cElem.parseInlineFormatting();
+                cElem.parseLinks();
+                return;
             }
+
+            long start = System.nanoTime();
+            cElem.parseInlineFormatting();
+            long formatted = System.nanoTime();
+            cElem.parseLinks();
+            inlineFormattingNanos += formatted - start;
+            linksNanos += System.nanoTime() - formatted;
         }
     }
 
-    /** Parses inline links from Markdown formatting to HTML using corresponding method of ContentElement objects. */
-    private static void parseLinks(List<ContentCard> cards) {
-        for (ContentCard cCard : cards) {
-            cCard.heading.parseLinks();
-            for (ContentElement cElem : cCard.content) {
-                cElem.parseLinks();
-            }
+    /** Parses single RawCard into LearningCard. */
+    static LearningCard parseCard(RawCard card) {
+        CardParser parser = new CardParser();
+        for (String curLine : card.content) {
+            parser.readLine(curLine);
         }
+        return parser.finish();
     }
 
-    /** Parses ContentCards into LearningCards using Constructor of corresponding LearningCard classes. */
-    private static List<LearningCard> generateLearningCards(List<ContentCard> cards) {
-
-        List<LearningCard> output = new ArrayList<>();
-
-        // parse ContentCard into LearningCard:
-        for (ContentCard cCard : cards) {
-            LearningCard lCard = switch(cCard.tag) {
-                case NONE -> new SimpleCard(cCard.heading, cCard.content);
-                case QUESTION -> new QuestionCard(cCard.heading, cCard.content);
-                case CHOICE -> new ChoiceCard(cCard.heading, cCard.content);
-            };
-            output.add(lCard);
+    /** Parses given RawCards into LearningCards on a fork-join pool. All stages of a card are fused into one task,
+     * the order of the cards is preserved. */
+    private List<LearningCard> parseCardsParallel(List<RawCard> cards) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> cards.parallelStream()
+                    .map(MarkdownLoader::parseCard)
+                    .collect(Collectors.toList())
+            ).join();
+        } finally {
+            pool.shutdown();
         }
+    }
 
-        return output;
+    /** Opens the content of a Markdown File, which is either read from disk or already in memory. */
+    @FunctionalInterface
+    private interface Source {
+        BufferedReader open() throws IOException;
     }
 
     /** Parses specified Markdown File into List of LearningCard objects. */
     public List<LearningCard> loadCardFile(String file_path) throws IOException {
+        return this.loadCards(file_path, () -> Files.newBufferedReader(Paths.get(file_path)));
+    }
+
+    /** Parses content of given Markdown File, which is opened by given Source, into List of LearningCard objects. */
+    private List<LearningCard> loadCards(String file_path, Source source) throws IOException {
+        StageRecorder recorder = new StageRecorder(listener, file_path);
+
+        // parse cards sequentially while reading the file:
+        if (cache == null && parallelism == 1) {
+            long start = recorder.time();
+            long allocated = recorder.allocatedBytes();
+            List<LearningCard> output = new ArrayList<>();
+            CardParser parser = new CardParser(recorder.isActive());
+            try (BufferedReader reader = source.open()) {
+                LearningCard card;
+                while ((card = parser.readCard(reader)) != null) {
+                    output.add(card);
+                }
+            }
+
+            if (recorder.isActive()) {
+                long bytes = Files.size(Paths.get(file_path));
+                recorder.record(PipelineListener.Stage.PARSE_CARDS, start, allocated, output.size(), parser.numLines,
+                        bytes);
+                recorder.recordTime(PipelineListener.Stage.PARSE_INLINE_FORMATTING, parser.inlineFormattingNanos,
+                        output.size(), parser.numLines, -1, -1);
+                recorder.recordTime(PipelineListener.Stage.PARSE_LINKS, parser.linksNanos, output.size(),
+                        parser.numLines, -1, -1);
+            }
+            return output;
+        }
 
         // load file:
-        List<String> fileContent = importFile(file_path);
+        long start = recorder.time();
+        long allocated = recorder.allocatedBytes();
+        List<String> fileContent;
+        try (BufferedReader reader = source.open()) {
+            fileContent = importFile(reader);
+        }
+        if (recorder.isActive()) {
+            recorder.record(PipelineListener.Stage.IMPORT_FILE, start, allocated, -1, fileContent.size(),
+                    Files.size(Paths.get(file_path)));
+        }
 
         // create RawCards:
+        start = recorder.time();
+        allocated = recorder.allocatedBytes();
         List<RawCard> cards = splitIntoCards(fileContent);
-        readCardType(cards);
+        recorder.record(PipelineListener.Stage.SPLIT_INTO_CARDS, start, allocated, cards.size(), fileContent.size(), -1);
 
-        // create ContentCards and parse inline formatting:
-        List<ContentCard> contentCards = parseContentElements(cards);
-        parseInlineFormatting(contentCards);
-        parseLinks(contentCards);
+        // special case: parse cards lazily using cache:
+        if (cache != null) {
+            List<LearningCard> cachedCards = new ArrayList<>();
+            for (RawCard c : cards) {
+                cachedCards.add(new CachedCard(c, cache));
+            }
+            return cachedCards;
+        }
+
+        // parse cards in parallel:
+        start = recorder.time();
+        List<LearningCard> output = parseCardsParallel(cards);
+        recorder.record(PipelineListener.Stage.PARSE_CARDS, start, -1, output.size(), fileContent.size(), -1);
+        return output;
+    }
+
+    /** Loads specified Markdown File from given compiled deck, a binary file containing the parsed cards. If the
+     * compiled deck does not exist, can not be read or was created from another version of the Markdown File (as
+     * detected by a hash of its content), the Markdown File is parsed and the compiled deck is created again. The
+     * returned cards are views of a CompactDeck and can not be modified. */
+    public List<LearningCard> loadCardFileCompiled(String file_path, String compiled_path) throws IOException {
+
+        // read file once, so the stored hash belongs to exactly the content the cards are parsed from:
+        byte[] content = Files.readAllBytes(Paths.get(file_path));
+        byte[] sourceHash = CompactDeck.hash(content);
+
+        // load compiled deck if it is up to date:
+        try {
+            CompactDeck deck = CompactDeck.read(compiled_path, sourceHash);
+            if (deck != null) return deck.asList();
+        } catch (IOException ex) {
+            // a missing or damaged compiled deck is simply created again
+        }
+
+        // parse file and create compiled deck:
+        CompactDeck deck = CompactDeck.of(this.loadCards(file_path, () -> new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8.newDecoder()))));
+        deck.write(compiled_path, sourceHash);
+        return deck.asList();
+    }
+
+    /** Parses specified Markdown File into List of LearningCard objects by mapping the file into memory. Only the
+     * beginnings of the cards are determined up front, the bytes of each card are decoded right before the card is
+     * parsed. With a parallelism larger than 1 the beginnings of the cards are searched in parallel and the cards are
+     * decoded and parsed in parallel. Searching the beginnings of the cards is reported as stage SPLIT_INTO_CARDS,
+     * decoding and parsing the cards as stage PARSE_CARDS. */
+    public List<LearningCard> loadCardFileMapped(String file_path) throws IOException {
+        StageRecorder recorder = new StageRecorder(listener, file_path);
+
+        // map file and search beginnings of cards:
+        long start = recorder.time();
+        long allocated = recorder.allocatedBytes();
+        MappedDeck deck = new MappedDeck(file_path, parallelism);
+        if (recorder.isActive()) {
+            recorder.record(PipelineListener.Stage.SPLIT_INTO_CARDS, start, parallelism == 1 ? allocated : -1,
+                    deck.getNumCards(), -1, Files.size(Paths.get(file_path)));
+        }
+
+        // decode and parse cards:
+        start = recorder.time();
+        allocated = parallelism == 1 ? recorder.allocatedBytes() : -1;
+        LongAdder numLines = new LongAdder();
+        IntStream indices = IntStream.range(0, deck.getNumCards());
+        Stream<LearningCard> cards = indices.mapToObj(i -> {
+            RawCard card = deck.readCard(i);
+            if (recorder.isActive()) numLines.add(card.content.size());
+            return cache != null ? new CachedCard(card, cache) : parseCard(card);
+        });
+
+        List<LearningCard> output;
+        try {
+            if (parallelism == 1) {
+                output = cards.collect(Collectors.toList());
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    output = pool.submit(() -> cards.parallel().collect(Collectors.toList())).join();
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        recorder.record(PipelineListener.Stage.PARSE_CARDS, start, allocated, output.size(), numLines.sum(), -1);
+        return output;
+    }
+
+    /** Lazily parses specified Markdown File into Stream of LearningCard objects. The file is read line by line and
+     * each card is emitted as soon as the heading of the next card is reached, so only one card is held in memory at
+     * a time. The returned stream has to be closed in order to close the underlying file. Reading and parsing the
+     * cards emitted until the stream is closed is reported as stage PARSE_CARDS, excluding the time spent by the
+     * consumer of the stream. */
+    public Stream<LearningCard> streamCardFile(String file_path) throws IOException {
+        StageRecorder recorder = new StageRecorder(listener, file_path);
+        BufferedReader reader = Files.newBufferedReader(Paths.get(file_path));
+        long start = recorder.time();
+        RawCardReader rawCards;
+        try {
+            rawCards = new RawCardReader(reader);
+        } catch (RuntimeException ex) {
+
+            // the first card is read right away, so the stream is not created and the reader has to be closed here:
+            try {
+                reader.close();
+            } catch (IOException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            if (ex instanceof UncheckedIOException ioEx) throw ioEx.getCause();
+            throw ex;
+        }
+        long startNanos = recorder.time() - start;
+
+        var iterator = new Iterator<LearningCard>() {
+            private long nanos = startNanos;
+            private int numCards = 0;
+            private long numLines = 0;
+
+            @Override
+            public boolean hasNext() {
+                return rawCards.hasNext();
+            }
 
-        // create LearningCards:
-        return generateLearningCards(contentCards);
+            @Override
+            public LearningCard next() {
+                long start = recorder.time();
+                RawCard card = rawCards.next();
+                LearningCard output = cache != null ? new CachedCard(card, cache) : parseCard(card);
+                nanos += recorder.time() - start;
+                numCards++;
+                numLines += card.content.size();
+                return output;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                        if (recorder.isActive()) {
+                            recorder.recordTime(PipelineListener.Stage.PARSE_CARDS, iterator.nanos, iterator.numCards,
+                                    iterator.numLines, Files.size(Paths.get(file_path)), -1);
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,52 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/** CardCache keeping all entries in memory instead of a directory, e.g. used to keep the rendered cards of decks
+ * which are converted again and again while they are edited. Least recently used entries are evicted as soon as the
+ * cached output (counted as two bytes per character) grows larger than the given size. */
+public class MemoryCardCache extends CardCache {
+
+    /** Contains cached output and the index of the card it was rendered for (or ANY_INDEX). */
+    private static class Entry {
+        final int cardIndex;
+        final String output;
+
+        Entry(int cardIndex, String output) {
+            this.cardIndex = cardIndex;
+            this.output = output;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public MemoryCardCache(long maxBytes) {
+        super(maxBytes);
+    }
+
+    @Override
+    public synchronized String get(String key, String format, int cardIndex) {
+        Entry entry = entries.get(key + "." + format);
+        if (entry == null || (entry.cardIndex != ANY_INDEX && entry.cardIndex != cardIndex)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.output;
+    }
+
+    @Override
+    public synchronized void put(String key, String format, int cardIndex, boolean dependsOnIndex, String output) {
+        Entry old = entries.put(key + "." + format, new Entry(dependsOnIndex ? cardIndex : ANY_INDEX, output));
+        currentBytes.addAndGet(2L * output.length() - (old == null ? 0 : 2L * old.output.length()));
+
+        // evict least recently used entries:
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes.get() > maxBytes && iterator.hasNext()) {
+            currentBytes.addAndGet(-2L * iterator.next().getValue().output.length());
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+
+/** Represents object to export LearningCards into several file formats at once. The cards are traversed once and
+ * each card is rendered once, the rendered card is then written by all given CardSinks (e.g. AnkiCardGenerator.SINK
+ * and HTMLCardGenerator.SINK). */
+public class MultiTargetCardGenerator extends CardGenerator {
+
+    private final List<CardSink> sinks;
+
+    /** Creates MultiTargetCardGenerator rendering all cards sequentially and writing them with given sinks. */
+    public MultiTargetCardGenerator(CardSink... sinks) {
+        super();
+        this.sinks = List.of(sinks);
+    }
+
+    /** Creates MultiTargetCardGenerator rendering chunks of cards on given number of threads. */
+    public MultiTargetCardGenerator(int parallelism, CardSink... sinks) {
+        this(parallelism, DEFAULT_CHUNK_SIZE, 2 * parallelism, null, sinks);
+    }
+
+    /** Creates MultiTargetCardGenerator rendering chunks of given size on given number of threads, keeping at most
+     * maxChunksInFlight rendered chunks in memory and reporting the metrics of each export to given PipelineListener
+     * (or null). */
+    public MultiTargetCardGenerator(int parallelism, int chunkSize, int maxChunksInFlight, PipelineListener listener,
+                                    CardSink... sinks) {
+        super(parallelism, chunkSize, maxChunksInFlight, listener);
+        this.sinks = List.of(sinks);
+    }
+
+    /** Creates one file for each sink containing given LearningCards. The name of each file is given output file
+     * followed by the extension of the sink, e.g. "deck" is exported to "deck.txt" and "deck.html". */
+    @Override
+    public boolean exportCards(Iterable<LearningCard> cards, String output_file, String deckName) {
+
+        // create output files, removing the files already created if one of them cannot be created:
+        BufferedWriter[] writers = new BufferedWriter[sinks.size()];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = createOutputFile(output_file + sinks.get(i).getExtension());
+            if (writers[i] == null) {
+                this.discard(writers, i, output_file);
+                return false;
+            }
+        }
+
+        boolean written = false;
+        try {
+            for (int i = 0; i < writers.length; i++) {
+                sinks.get(i).writeHeader(writers[i]);
+            }
+
+            // render each card once and let all sinks write it:
+            CardGUIDs guids = new CardGUIDs(deckName);
+            writeCards(guids.assignTo(cards), writers, (outs, card, cardIndex) -> {
+                RenderedCard rendered = new RenderedCard(card, cardIndex, guids.take(cardIndex));
+                for (int i = 0; i < outs.length; i++) {
+                    sinks.get(i).writeCard(outs[i], rendered);
+                }
+            });
+
+            for (int i = 0; i < writers.length; i++) {
+                sinks.get(i).writeFooter(writers[i]);
+            }
+            written = true;
+        } catch (IOException ex) {
+            System.err.println("There was an error creating the file.");
+        } finally {
+            written &= close(writers);
+
+            // remove incomplete files:
+            if (!written) this.discard(writers, writers.length, output_file);
+        }
+        return written;
+    }
+
+    /** Closes and deletes the first given number of created files (closing writers which are closed already has no
+     * effect). */
+    private void discard(BufferedWriter[] writers, int numCreated, String output_file) {
+        close(writers);
+        for (int i = 0; i < numCreated; i++) {
+            try {
+                Files.deleteIfExists(Paths.get(output_file + sinks.get(i).getExtension()));
+            } catch (IOException ex) {
+                // file stays empty
+            }
+        }
+    }
+
+    /** Closes all given writers (ignoring missing ones), reporting an error once. Returns whether all writers were
+     * closed successfully. */
+    private static boolean close(Writer[] writers) {
+        boolean failed = false;
+        for (Writer writer : writers) {
+            if (writer == null) continue;
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                failed = true;
+            }
+        }
+        if (failed) System.err.println("There was an error creating the file.");
+        return !failed;
+    }
+}
@@ -1,4 +1,4 @@
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
 /** ContentElement representing ordered (i.e. numbered) list of items. */
@@ -9,16 +9,8 @@ public class OrderedListElement extends ListElement {
     }
 
     @Override
-    public List<String> toHTML() {
-        List<String> output = new ArrayList<>();
-        output.add("<ol>");
-
-        for (String point : points) {
-            output.add(String.format("<li>%s</li>", point));
-        }
-
-        output.add("</ol>");
-        return output;
+    public void render(Appendable out, RenderContext context, String lineSeparator) throws IOException {
+        render(out, "<ol>", "</ol>", lineSeparator);
     }
 
     @Override
@@ -0,0 +1,18 @@
+/** Receives metrics of the stages of loading and exporting cards, e.g. for logging or monitoring conversions. */
+public interface PipelineListener {
+
+    /** Stages of the conversion. Sequential loading parses each card completely while the file is read, so it reports
+     * PARSE_CARDS for the whole file and the time spent on inline formatting and links as part of it. Parallel and
+     * cached loading read and split the whole file first. */
+    enum Stage {
+        IMPORT_FILE,
+        SPLIT_INTO_CARDS,
+        PARSE_CARDS,
+        PARSE_INLINE_FORMATTING,
+        PARSE_LINKS,
+        EXPORT_CARDS,
+    }
+
+    /** Called after given stage of loading or exporting a file was completed, on the thread which completed it. */
+    void stageCompleted(StageMetrics metrics);
+}
@@ -0,0 +1,41 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+
+/** JFR event committed for every completed stage of loading or exporting a file, so conversions can be profiled
+ * using a flight recording (e.g. java -XX:StartFlightRecording=filename=carddown.jfr ...). */
+@Name("carddown.PipelineStage")
+@Label("Pipeline Stage")
+@Category("CardDown")
+@Description("Completed stage of loading or exporting a deck")
+class PipelineStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("File")
+    String file;
+
+    @Label("Stage Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long stageTime;
+
+    @Label("Cards")
+    int cards;
+
+    @Label("Lines")
+    long lines;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Allocated Bytes")
+    @DataAmount
+    long allocatedBytes;
+}
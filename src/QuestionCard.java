@@ -6,6 +6,10 @@ public class QuestionCard extends LearningCard {
     private final List<ContentElement> frontContent = new ArrayList<>();
     private final List<ContentElement> backContent = new ArrayList<>();
 
+    /** Unmodifiable views of both sides, created on first use and reset whenever the card is extended. */
+    private List<ContentElement> frontView;
+    private List<ContentElement> backView;
+
     public QuestionCard(HeadingElement heading, List<ContentElement> content) {
         List<List<ContentElement>> frontBackContent = ContentElement.splitFrontBack(content);
 
@@ -24,10 +28,15 @@ public class QuestionCard extends LearningCard {
 
     @Override
     protected List<ContentElement> getFrontContentElements() {
-        List<ContentElement> output = new ArrayList<>();
-        output.add(heading);
-        output.addAll(frontContent);
-        return output;
+        List<ContentElement> view = this.frontView;
+        if (view == null) {
+            List<ContentElement> output = new ArrayList<>(frontContent.size() + 1);
+            output.add(heading);
+            output.addAll(frontContent);
+            view = List.copyOf(output);
+            this.frontView = view;
+        }
+        return view;
     }
 
     @Override
@@ -37,22 +46,33 @@ public class QuestionCard extends LearningCard {
 
     @Override
     public List<ContentElement> getBackContentElements() {
-        return backContent;
+        List<ContentElement> view = this.backView;
+        if (view == null) {
+            view = List.copyOf(backContent);
+            this.backView = view;
+        }
+        return view;
     }
 
     @Override
     public void extendFrontContent(ContentElement content) {
         this.frontContent.add(content);
+        this.frontView = null;
     }
 
     @Override
     public void extendBackContent(ContentElement content) {
         this.backContent.add(content);
+        this.backView = null;
     }
 
     @Override
     protected String getName() {
         return "QuestionCard";
     }
-}
 
+    @Override
+    protected Tag getTag() {
+        return Tag.QUESTION;
+    }
+}
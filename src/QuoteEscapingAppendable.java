@@ -0,0 +1,39 @@
+import java.io.IOException;
+
+
+/** Appendable forwarding all characters to another Appendable while doubling each quotation mark, as required for
+ * fields of the CSV like files imported by Anki. */
+public class QuoteEscapingAppendable implements Appendable {
+
+    private final Appendable out;
+
+    public QuoteEscapingAppendable(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        int copiedUntil = start;
+        for (int i = start; i < end; i++) {
+            if (csq.charAt(i) == '"') {
+                out.append(csq, copiedUntil, i + 1);
+                out.append('"');
+                copiedUntil = i + 1;
+            }
+        }
+        out.append(csq, copiedUntil, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        out.append(c);
+        if (c == '"') out.append('"');
+        return this;
+    }
+}
@@ -0,0 +1,38 @@
+/** Contains the state of rendering a single LearningCard, e.g. used for creating unique IDs of HTML elements. Each
+ * rendered card gets its own RenderContext, so rendering is deterministic and cards can be rendered concurrently. */
+public class RenderContext {
+
+    private final int cardIndex;
+
+    private int numIDs = 0;
+
+    public RenderContext(int cardIndex) {
+        this.cardIndex = cardIndex;
+    }
+
+    public int getCardIndex() {
+        return this.cardIndex;
+    }
+
+    /** Returns whether IDs have been created, i.e. whether the rendered output depends on the index of the card. */
+    public boolean hasCreatedIDs() {
+        return this.numIDs > 0;
+    }
+
+    /** Returns number of IDs created so far. */
+    int getNumIDs() {
+        return this.numIDs;
+    }
+
+    /** Advances the context as if given number of IDs had been created, e.g. when cached output is written instead
+     * of rendering the elements creating the IDs. */
+    void skipIDs(int count) {
+        this.numIDs += count;
+    }
+
+    /** Returns new ID using given prefix, which is unique among all cards rendered with different card indices. */
+    public String nextID(String prefix) {
+        numIDs++;
+        return prefix + cardIndex + "_" + numIDs;
+    }
+}
@@ -0,0 +1,71 @@
+import java.io.IOException;
+
+
+/** HTML representation of a single LearningCard, which is rendered once and then written in several formats (e.g. by
+ * all CardSinks of a MultiTargetCardGenerator). */
+public class RenderedCard {
+
+    /** Line separator used for rendering, which never occurs in the content of a card. */
+    private static final String RENDER_SEPARATOR = "\n";
+
+    private final LearningCard card;
+    private final int cardIndex;
+    private final String guid;
+
+    /** Rendered front side followed by rendered back side, each line followed by RENDER_SEPARATOR. */
+    private final String rendered;
+    private final int frontLength;
+
+    /** Renders given card with given index, which gets the given GUID. */
+    public RenderedCard(LearningCard card, int cardIndex, String guid) throws IOException {
+        this.card = card;
+        this.cardIndex = cardIndex;
+        this.guid = guid;
+
+        StringBuilder output = new StringBuilder();
+        RenderContext context = new RenderContext(cardIndex);
+        card.renderFront(output, context, RENDER_SEPARATOR);
+        this.frontLength = output.length();
+        card.renderBack(output, context, RENDER_SEPARATOR);
+        this.rendered = output.toString();
+    }
+
+    public LearningCard getCard() {
+        return this.card;
+    }
+
+    public int getCardIndex() {
+        return this.cardIndex;
+    }
+
+    /** Returns stable GUID of the card (see CardGUIDs). */
+    public String getGUID() {
+        return this.guid;
+    }
+
+    /** Writes HTML representation of front or back side to given Appendable, each line followed by given line
+     * separator. The output is the same as rendering the side of the card with given line separator. */
+    public void writeFront(Appendable out, String lineSeparator) throws IOException {
+        write(out, 0, frontLength, lineSeparator);
+    }
+    public void writeBack(Appendable out, String lineSeparator) throws IOException {
+        write(out, frontLength, rendered.length(), lineSeparator);
+    }
+
+    /** Writes given range of the rendered card, replacing each RENDER_SEPARATOR by given line separator. */
+    private void write(Appendable out, int start, int end, String lineSeparator) throws IOException {
+        if (lineSeparator.equals(RENDER_SEPARATOR)) {
+            out.append(rendered, start, end);
+            return;
+        }
+
+        int copiedUntil = start;
+        for (int i = start; i < end; i++) {
+            if (rendered.charAt(i) == '\n') {
+                out.append(rendered, copiedUntil, i).append(lineSeparator);
+                copiedUntil = i + 1;
+            }
+        }
+        out.append(rendered, copiedUntil, end);
+    }
+}
@@ -1,3 +1,4 @@
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -5,9 +6,13 @@ import java.util.List;
 public class SimpleCard extends LearningCard {
     private final List<ContentElement> backContent;
 
+    /** Unmodifiable views of both sides, created on first use and reset whenever the card is extended. */
+    private List<ContentElement> frontView;
+    private List<ContentElement> backView;
+
     public SimpleCard(HeadingElement heading, List<ContentElement> backContent) {
         this.heading = heading;
-        this.backContent = backContent;
+        this.backContent = new ArrayList<>(backContent);
     }
 
     @Override
@@ -19,9 +24,12 @@ public class SimpleCard extends LearningCard {
 
     @Override
     protected List<ContentElement> getFrontContentElements() {
-        List<ContentElement> frontContent = new ArrayList<>();
-        frontContent.add(this.heading);
-        return frontContent;
+        List<ContentElement> view = this.frontView;
+        if (view == null) {
+            view = List.of(this.heading);
+            this.frontView = view;
+        }
+        return view;
     }
 
     @Override
@@ -31,7 +39,12 @@ public class SimpleCard extends LearningCard {
 
     @Override
     protected List<ContentElement> getBackContentElements() {
-        return backContent;
+        List<ContentElement> view = this.backView;
+        if (view == null) {
+            view = List.copyOf(backContent);
+            this.backView = view;
+        }
+        return view;
     }
 
     @Override
@@ -40,15 +53,22 @@ public class SimpleCard extends LearningCard {
             throw new IllegalArgumentException("Given ContentElement has type " + content.getClass().getName() +
                     ", but should be of type 'HeadingElement'.");
         this.heading = (HeadingElement)content;
+        this.frontView = null;
     }
 
     @Override
     public void extendBackContent(ContentElement content) {
         this.backContent.add(content);
+        this.backView = null;
     }
 
     @Override
     protected String getName() {
         return "SimpleCard";
     }
+
+    @Override
+    protected Tag getTag() {
+        return Tag.NONE;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/** Metrics of one stage of loading or exporting a file. Values which are not available are -1. */
+public class StageMetrics {
+
+    private final PipelineListener.Stage stage;
+
+    private final String file;
+
+    private final long nanos;
+
+    private final int cards;
+
+    private final long lines;
+
+    private final long bytes;
+
+    private final long allocatedBytes;
+
+    public StageMetrics(PipelineListener.Stage stage, String file, long nanos, int cards, long lines, long bytes,
+                        long allocatedBytes) {
+        this.stage = stage;
+        this.file = file;
+        this.nanos = nanos;
+        this.cards = cards;
+        this.lines = lines;
+        this.bytes = bytes;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public PipelineListener.Stage getStage() {
+        return this.stage;
+    }
+
+    /** Returns path of the file which was loaded or exported. */
+    public String getFile() {
+        return this.file;
+    }
+
+    /** Returns wall time of the stage in nanoseconds. */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    public int getCards() {
+        return this.cards;
+    }
+
+    public long getLines() {
+        return this.lines;
+    }
+
+    /** Returns number of bytes read from the Markdown file or written to the output file. */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /** Returns number of bytes allocated by the thread running the stage (or -1 if the stage ran on several threads
+     * or the JVM does not measure allocations). */
+    public long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: %.1f ms, %d cards, %d lines, %d bytes, %d bytes allocated", stage, file,
+                nanos / 1e6, cards, lines, bytes, allocatedBytes);
+    }
+}
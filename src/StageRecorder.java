@@ -0,0 +1,70 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/** Measures stages of loading or exporting a single file and reports them to a PipelineListener and as JFR events.
+ * Nothing is measured if neither a listener is given nor a flight recording of PipelineStageEvents is running. */
+class StageRecorder {
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private final PipelineListener listener;
+
+    private final String file;
+
+    private final boolean active;
+
+    public StageRecorder(PipelineListener listener, String file) {
+        this.listener = listener;
+        this.file = file;
+        this.active = listener != null || new PipelineStageEvent().isEnabled();
+    }
+
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /** Returns current time in nanoseconds (or 0 if nothing is measured). */
+    public long time() {
+        return active ? System.nanoTime() : 0;
+    }
+
+    /** Returns number of bytes allocated by the current thread so far (or -1 if not available). */
+    public long allocatedBytes() {
+        if (active && threadBean instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /** Reports stage which started at given time with given number of allocated bytes on the current thread (or -1 if
+     * it ran on several threads). */
+    public void record(PipelineListener.Stage stage, long startTime, long startAllocated, int cards, long lines,
+                       long bytes) {
+        if (!active) return;
+        long allocated = startAllocated < 0 ? -1 : this.allocatedBytes() - startAllocated;
+        this.recordTime(stage, System.nanoTime() - startTime, cards, lines, bytes, allocated);
+    }
+
+    /** Reports stage which took given number of nanoseconds. */
+    public void recordTime(PipelineListener.Stage stage, long nanos, int cards, long lines, long bytes,
+                           long allocatedBytes) {
+        if (!active) return;
+        if (listener != null) {
+            listener.stageCompleted(new StageMetrics(stage, file, nanos, cards, lines, bytes, allocatedBytes));
+        }
+
+        PipelineStageEvent event = new PipelineStageEvent();
+        if (event.shouldCommit()) {
+            event.stage = stage.name();
+            event.file = file;
+            event.stageTime = nanos;
+            event.cards = cards;
+            event.lines = lines;
+            event.bytes = bytes;
+            event.allocatedBytes = allocatedBytes;
+            event.commit();
+        }
+    }
+}
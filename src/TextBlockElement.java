@@ -1,4 +1,5 @@
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 /** ContentElement representing text block. */
@@ -10,40 +11,37 @@ public class TextBlockElement extends ContentElement {
         this.text = text;
     }
 
+    /** Returns unmodifiable view of the lines, so the memoized output can only be changed by the methods of this
+     * element, which invalidate it. */
+    public List<String> getLines() {
+        return Collections.unmodifiableList(this.text);
+    }
+
     @Override
     public void parseInlineFormatting() {
         text = parseInlineFormatting(text);
+        invalidateRendering();
     }
 
     @Override
     public void parseLinks() {
         text = parseLinks(text);
+        invalidateRendering();
     }
 
     @Override
-    public List<String> toHTML() {
+    public void render(Appendable out, RenderContext context, String lineSeparator) throws IOException {
         if (text.size() == 0) {
-            return List.of("<p></p>");
+            out.append("<p></p>").append(lineSeparator);
+            return;
         }
 
-        List<String> output = new ArrayList<>();
-        output.add("<p>");
+        out.append("<p>").append(lineSeparator);
         for (int i = 0; i < text.size() - 1; i++) {
-            output.add(text.get(i) + "<br>");
-        }
-        output.add(text.get(text.size() - 1));
-        output.add("</p>");
-
-        return output;
-    }
-
-    @Override
-    public String toAnki() {
-        StringBuilder output = new StringBuilder();
-        for (String line : this.toHTML()) {
-            output.append(line);
+            out.append(text.get(i)).append("<br>").append(lineSeparator);
         }
-        return output.toString();
+        out.append(text.get(text.size() - 1)).append(lineSeparator);
+        out.append("</p>").append(lineSeparator);
     }
 
     @Override